@@ -1,7 +1,13 @@
 package com.fds.config;
 
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -11,4 +17,22 @@ public class AppConfig {
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
+
+    // spring.main.lazy-initialization(fast-startup 프로파일)에서도 @Scheduled 메서드가 있는 빈은 기동 시 생성
+    // 지연 생성하면 첫 사용 전까지 스케줄이 등록되지 않음 (HistoryService 일별 압축, Sheets 차단 재시도, IP 목록 갱신 등)
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && hasScheduledMethods(beanType);
+    }
+
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        if (!AnnotationUtils.isCandidateClass(beanType, Scheduled.class)
+                && !AnnotationUtils.isCandidateClass(beanType, Schedules.class)) {
+            return false;
+        }
+        return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, Schedules.class) ? Boolean.TRUE : null
+        ).isEmpty();
+    }
 }
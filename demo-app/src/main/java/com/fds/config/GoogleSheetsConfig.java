@@ -1,6 +1,7 @@
 package com.fds.config;
 
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.sheets.v4.Sheets;
 import com.google.api.services.sheets.v4.SheetsScopes;
@@ -10,11 +11,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.Resource;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.GeneralSecurityException;
+import java.time.Duration;
 import java.util.Collections;
 
 @Slf4j
@@ -24,7 +27,13 @@ public class GoogleSheetsConfig {
     @Value("${google.sheets.credentials-path}")
     private Resource credentialsResource;
 
+    // HTTP 레벨 타임아웃: 호출 deadline을 넘긴 요청이 sheets-io 스레드를 오래 점유하지 않도록 제한
+    @Value("${fds.sheets.http-timeout:5s}")
+    private Duration httpTimeout;
+
+    // trusted transport 생성과 인증 정보 파싱은 기동 시간을 늘리므로 첫 Sheets 호출 때 초기화
     @Bean
+    @Lazy
     public Sheets sheetsClient() throws IOException, GeneralSecurityException {
         log.info("Initializing Google Sheets API service");
 
@@ -34,10 +43,17 @@ public class GoogleSheetsConfig {
                 .fromStream(credentialsStream)
                 .createScoped(Collections.singleton(SheetsScopes.SPREADSHEETS));
 
+        HttpCredentialsAdapter credentialsAdapter = new HttpCredentialsAdapter(credentials);
+        HttpRequestInitializer requestInitializer = request -> {
+            credentialsAdapter.initialize(request);
+            request.setConnectTimeout((int) httpTimeout.toMillis());
+            request.setReadTimeout((int) httpTimeout.toMillis());
+        };
+
         return new Sheets.Builder(
                 GoogleNetHttpTransport.newTrustedTransport(),
                 GsonFactory.getDefaultInstance(),
-                new HttpCredentialsAdapter(credentials))
+                requestInitializer)
                 .setApplicationName("FDS Application")
                 .build();
     }
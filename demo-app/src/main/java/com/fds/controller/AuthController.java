@@ -4,6 +4,7 @@ import com.fds.dto.LoginRequest;
 import com.fds.dto.User;
 import com.fds.service.AuthService;
 import com.fds.service.GoogleSheetsService;
+import com.fds.service.StepUpTokenService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,8 +18,16 @@ import java.util.Map;
 @RequestMapping("/auth")
 public class AuthController {
 
+    // 요청마다 같은 내용인 응답은 미리 만들어 재사용
+    private static final Map<String, Object> USER_NOT_FOUND = Map.of("status", "USER_NOT_FOUND");
+    private static final Map<String, Object> INVALID_PASSWORD = Map.of("status", "INVALID_PASSWORD");
+    private static final Map<String, Object> AMOUNT_REQUIRED = Map.of("status", "AMOUNT_REQUIRED");
+    private static final Map<String, Boolean> BLOCKED = Map.of("blocked", true);
+    private static final Map<String, Boolean> NOT_BLOCKED = Map.of("blocked", false);
+
     private final AuthService authService;
     private final GoogleSheetsService googleSheetsService;
+    private final StepUpTokenService stepUpTokenService;
 
     @PostMapping("/login")
     public String login(
@@ -53,26 +62,35 @@ public class AuthController {
         return result.equals("SUCCESS") ? "LOGOUT_SUCCESS" : "LOGOUT_FAILURE";
     }
 
+    // 비밀번호 확인 후 userId + 송금액에 묶인 단기 step-up 토큰 발급 (/api/transfer의 stepUpToken 파라미터로 사용)
     @PostMapping("/verify")
-    public ResponseEntity<String> verify(@RequestBody LoginRequest request) {
+    public ResponseEntity<Map<String, Object>> verify(@RequestBody LoginRequest request) {
         User user = AuthService.getUser(request.userId());
 
         if (user == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("USER_NOT_FOUND");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(USER_NOT_FOUND);
         }
 
         if (!user.getPassword().equals(request.password())) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("INVALID_PASSWORD");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(INVALID_PASSWORD);
+        }
+
+        if (request.amount() == null) {
+            return ResponseEntity.badRequest().body(AMOUNT_REQUIRED);
         }
 
         // 이벤트 전송 없이 비밀번호만 검증
-        return ResponseEntity.ok("VERIFIED");
+        return ResponseEntity.ok(Map.of(
+                "status", "VERIFIED",
+                "stepUpToken", stepUpTokenService.issue(request.userId(), request.amount()),
+                "expiresIn", stepUpTokenService.ttlSeconds()
+        ));
     }
 
     @GetMapping("/check-blocked")
     public ResponseEntity<Map<String, Boolean>> checkBlocked(@RequestParam String userId) {
         boolean blocked = googleSheetsService.isUserBlocked(userId);
-        return ResponseEntity.ok(Map.of("blocked", blocked));
+        return ResponseEntity.ok(blocked ? BLOCKED : NOT_BLOCKED);
     }
 
 }
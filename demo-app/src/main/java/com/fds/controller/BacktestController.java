@@ -0,0 +1,65 @@
+package com.fds.controller;
+
+import com.fds.dto.BacktestRequest;
+import com.fds.dto.RuleSet;
+import com.fds.service.BacktestService;
+import com.fds.service.RuleSetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/backtest")
+public class BacktestController {
+
+    private static final int DEFAULT_DAYS = 30;
+
+    private final BacktestService backtestService;
+    private final RuleSetRepository ruleSetRepository;
+
+    // 보관 중인 로그(기본 30일)를 후보 룰셋들로 재평가
+    @PostMapping
+    public ResponseEntity<?> run(@RequestBody BacktestRequest request) {
+        List<RuleSet> ruleSets = new ArrayList<>();
+
+        if (!Boolean.FALSE.equals(request.includeActive())) {
+            try {
+                ruleSets.add(ruleSetRepository.loadActive());
+            } catch (IOException e) {
+                // 운영 룰셋을 읽지 못했을 때 빈 룰셋으로 평가하면 결과가 모두 LOW로 나오므로 백테스트 중단
+                log.warn("BACKTEST_ACTIVE_RULE_SET_UNAVAILABLE", e);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+        }
+
+        if (request.ruleSetFiles() != null) {
+            for (String fileName : request.ruleSetFiles()) {
+                try {
+                    ruleSets.add(ruleSetRepository.loadFile(fileName));
+                } catch (IOException e) {
+                    log.warn("BACKTEST_RULE_SET_INVALID file={} reason={}", fileName, e.getMessage());
+                    return ResponseEntity.badRequest().body(Map.of(
+                            "status", "error",
+                            "message", e.getMessage()
+                    ));
+                }
+            }
+        }
+
+        if (ruleSets.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+
+        int days = request.days() != null ? request.days() : DEFAULT_DAYS;
+        return ResponseEntity.ok(backtestService.run(ruleSets, days));
+    }
+}
@@ -0,0 +1,54 @@
+package com.fds.controller;
+
+import com.fds.dto.HistoryResult;
+import com.fds.service.HistoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/history")
+public class HistoryController {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 366;
+
+    private final HistoryService historyService;
+
+    // 사용자의 일자 범위 이벤트 타임라인과 집계 (기본: 오늘까지 30일)
+    // timeline=false면 집계에 필요한 컬럼만 읽음
+    @GetMapping
+    public ResponseEntity<HistoryResult> query(
+            @RequestParam String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "true") boolean timeline) {
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1L);
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start, end) >= MAX_DAYS) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(historyService.query(userId, start, end, timeline));
+    }
+
+    // 스케줄을 기다리지 않고 지난 로그를 바로 압축
+    @PostMapping("/compact")
+    public Map<String, Object> compact() {
+        int compacted = historyService.compactPending();
+        log.info("HISTORY_COMPACT_REQUESTED compacted={}", compacted);
+        return Map.of(
+                "status", "success",
+                "compacted", compacted
+        );
+    }
+}
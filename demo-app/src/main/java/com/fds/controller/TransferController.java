@@ -1,13 +1,20 @@
 package com.fds.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fds.dto.TransferRequest;
+import com.fds.service.StepUpTokenService;
 import com.fds.service.TransferService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -16,59 +23,92 @@ import java.util.Map;
 public class TransferController {
 
     private final TransferService transferService;
+    private final ObjectMapper objectMapper;
+    private final StepUpTokenService stepUpTokenService;
+
+    @Value("${fds.transfer.batch.max-size:5000}")
+    private int maxBatchSize;
 
     @PostMapping("/api/transfer")
     public ResponseEntity<Map<String, Object>> transfer(
             @RequestParam String userId,
             @RequestParam Long amount,
             @RequestParam(required = false) String country,
-            @RequestParam(required = false, defaultValue = "false") Boolean verified,
+            @RequestParam(required = false) String toBank,
+            @RequestParam(required = false) String toAccountId,
+            @RequestParam(required = false) String stepUpToken,
             HttpServletRequest request
     ) {
-        log.info("=== TRANSFER REQUEST START ===");
-        log.info("userId: {}", userId);
-        log.info("amount: {}", amount);
-        log.info("country: {}", country);
-        log.info("verified: {}", verified);
+        // 추가 인증 여부는 클라이언트 플래그 대신 /auth/verify가 발급한 토큰으로 판단
+        boolean verified = stepUpToken != null && stepUpTokenService.verify(stepUpToken, userId, amount);
 
         // 당일 평균 계산
         double avgAmount = transferService.getTodayAverageAmount(userId);
-        log.info("Today's average amount for {}: {}", userId, avgAmount);
 
-        Map<String, Object> result = transferService.processTransfer(userId, amount, country, verified, request, avgAmount);
+        Map<String, Object> result = transferService.processTransfer(userId, amount, country, toBank, toAccountId,
+                verified, request, avgAmount);
 
-        log.info("=== TRANSFER RESULT ===");
-        log.info("result: {}", result);
+        // 차단/추가 인증 판단은 서비스에서 WARN으로 남기므로 요청 단위 로그는 DEBUG에서만 포맷
+        if (log.isDebugEnabled()) {
+            log.debug("TRANSFER_REQUEST userId={} amount={} country={} verified={} avgAmount={} result={}",
+                    userId, amount, country, verified, avgAmount, result);
+        }
 
         return ResponseEntity.ok(result);
     }
 
+    // 대량 송금 (급여 이체 등): 항목별 결과를 NDJSON으로 완료되는 순서대로 스트리밍
+    @PostMapping(value = "/api/transfer/batch", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> transferBatch(
+            @RequestBody List<TransferRequest> requests,
+            HttpServletRequest request
+    ) {
+        log.info("=== TRANSFER BATCH REQUEST === size={}", requests.size());
+
+        if (requests.size() > maxBatchSize) {
+            log.warn("TRANSFER_BATCH_REJECTED size={} maxSize={}", requests.size(), maxBatchSize);
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = out -> transferService.processTransferBatch(requests, request, decision -> {
+            synchronized (out) {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(decision));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+
+        return ResponseEntity.ok(body);
+    }
+
     // 기존 /transfer 엔드포인트
     @PostMapping("/transfer")
     public String transferLegacy(
             @RequestBody TransferRequest req,
             HttpServletRequest httpRequest
     ) {
-        log.info("=== LEGACY TRANSFER REQUEST ===");
-        log.info("userId: {}", req.userId());
-        log.info("amount: {}", req.amount());
-        log.info("country: {}", req.country());
-
         // 당일 평균 계산
         double avgAmount = transferService.getTodayAverageAmount(req.userId());
-        log.info("Today's average amount for {}: {}", req.userId(), avgAmount);
 
         Map<String, Object> result = transferService.processTransfer(
                 req.userId(),
                 req.amount(),
                 req.country(),
+                req.toBank(),
+                req.toAccountId(),
                 false,
                 httpRequest,
                 avgAmount
         );
 
-        log.info("=== LEGACY TRANSFER RESULT ===");
-        log.info("result: {}", result);
+        if (log.isDebugEnabled()) {
+            log.debug("LEGACY_TRANSFER_REQUEST userId={} amount={} country={} avgAmount={} result={}",
+                    req.userId(), req.amount(), req.country(), avgAmount, result);
+        }
 
         return "TRANSFER_REQUESTED";
     }
@@ -1,11 +1,16 @@
 package com.fds.controller;
 
+import com.fds.dto.RiskUpdateRequest;
+import com.fds.service.EventTracing;
 import com.fds.service.GoogleSheetsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -14,19 +19,90 @@ import java.util.Map;
 public class UserController {
 
     private final GoogleSheetsService googleSheetsService;
+    private final EventTracing eventTracing;
 
     // n8n에서 위험도 분석 결과 받기
+    // event_id(또는 traceparent 헤더)가 함께 오면 이벤트 생성부터 콜백까지의 지연을 기록
     @PostMapping("/update-risk")
-    public Map<String, String> updateRiskStatus(@RequestBody Map<String, String> request) {
+    public Map<String, String> updateRiskStatus(@RequestBody Map<String, String> request,
+                                                @RequestHeader(value = EventTracing.TRACEPARENT_HEADER, required = false) String traceparent) {
         String userId = request.get("user_id");
         String riskLevel = request.get("risk_level");
+        String eventId = request.getOrDefault("event_id", EventTracing.eventIdFromTraceparent(traceparent));
+        long latencyMs = eventTracing.recordDecision(eventId, normalizeRiskLevel(riskLevel));
 
         switch (riskLevel.toUpperCase()) {
             case "HIGH":
                 // HIGH: Google Sheets에 blocked=TRUE 설정
                 googleSheetsService.blockUser(userId);
-                log.warn("RISK_UPDATE userId={} riskLevel=HIGH blocked=true", userId);
+                log.warn("RISK_UPDATE userId={} riskLevel=HIGH blocked=true eventId={} latencyMs={}", userId, eventId, latencyMs);
+                return createRiskResponse(userId, "HIGH");
 
+            case "MEDIUM":
+                log.warn("RISK_UPDATE userId={} riskLevel=MEDIUM (verification required) eventId={} latencyMs={}", userId, eventId, latencyMs);
+                return createRiskResponse(userId, "MEDIUM");
+
+            case "LOW":
+            default:
+                log.info("RISK_UPDATE userId={} riskLevel=LOW eventId={} latencyMs={}", userId, eventId, latencyMs);
+                return createRiskResponse(userId, "LOW");
+        }
+    }
+
+    // n8n에서 여러 사용자의 위험도 분석 결과를 한 번에 받기
+    // HIGH 항목은 Google Sheets 조회 1회 + batchUpdate 1회로 반영하고 항목별 결과를 요청 순서대로 반환
+    // 단건과 같이 LOW/MEDIUM은 시트 상태와 관계없이 성공, HIGH는 반영했거나 재시도 대기열에 넣었으면 성공
+    @PostMapping("/update-risk/batch")
+    public List<Map<String, String>> updateRiskStatusBatch(@RequestBody List<RiskUpdateRequest> requests) {
+        List<RiskUpdateRequest> valid = new ArrayList<>();
+        for (RiskUpdateRequest item : requests) {
+            if (item.userId() != null && item.riskLevel() != null) {
+                valid.add(item);
+            }
+        }
+
+        Set<String> blocked = googleSheetsService.applyRiskUpdates(valid);
+
+        List<Map<String, String>> results = new ArrayList<>(requests.size());
+        for (RiskUpdateRequest item : requests) {
+            if (item.userId() == null || item.riskLevel() == null) {
+                results.add(Map.of(
+                        "status", "error",
+                        "message", "user_id and risk_level are required"
+                ));
+                continue;
+            }
+
+            String riskLevel = normalizeRiskLevel(item.riskLevel());
+            if ("HIGH".equals(riskLevel) && !blocked.contains(item.userId())) {
+                log.warn("RISK_UPDATE_FAILED userId={} riskLevel={}", item.userId(), riskLevel);
+                results.add(Map.of(
+                        "status", "error",
+                        "user_id", item.userId(),
+                        "risk_level", riskLevel,
+                        "message", "Failed to apply risk update to Google Sheets"
+                ));
+                continue;
+            }
+
+            long latencyMs = eventTracing.recordDecision(item.eventId(), riskLevel);
+            log.info("RISK_UPDATE userId={} riskLevel={} score={} eventId={} latencyMs={} (batch)",
+                    item.userId(), riskLevel, item.score(), item.eventId(), latencyMs);
+            results.add(createRiskResponse(item.userId(), riskLevel));
+        }
+
+        log.info("RISK_UPDATE_BATCH size={} blocked={}", requests.size(), blocked.size());
+        return results;
+    }
+
+    private String normalizeRiskLevel(String riskLevel) {
+        String upper = riskLevel.toUpperCase();
+        return "HIGH".equals(upper) || "MEDIUM".equals(upper) ? upper : "LOW";
+    }
+
+    private Map<String, String> createRiskResponse(String userId, String riskLevel) {
+        switch (riskLevel) {
+            case "HIGH":
                 return Map.of(
                         "status", "success",
                         "user_id", userId,
@@ -36,7 +112,6 @@ public class UserController {
                 );
 
             case "MEDIUM":
-                log.warn("RISK_UPDATE userId={} riskLevel=MEDIUM (verification required)", userId);
                 return Map.of(
                         "status", "success",
                         "user_id", userId,
@@ -45,9 +120,7 @@ public class UserController {
                         "message", "Additional verification required"
                 );
 
-            case "LOW":
             default:
-                log.info("RISK_UPDATE userId={} riskLevel=LOW", userId);
                 return Map.of(
                         "status", "success",
                         "user_id", userId,
@@ -58,4 +131,4 @@ public class UserController {
         }
     }
 
-}
\ No newline at end of file
+}
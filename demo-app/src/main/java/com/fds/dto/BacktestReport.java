@@ -0,0 +1,22 @@
+package com.fds.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+public record BacktestReport(
+        @JsonProperty("rule_set")
+        String ruleSet,
+        @JsonProperty("events")
+        long events,
+        @JsonProperty("rule_hits")
+        Map<String, Long> ruleHits,
+        @JsonProperty("score_distribution")
+        Map<String, Long> scoreDistribution,
+        @JsonProperty("risk_levels")
+        Map<String, Long> riskLevels,
+        @JsonProperty("block_rate")
+        double blockRate,
+        @JsonProperty("verification_rate")
+        double verificationRate
+) {}
@@ -0,0 +1,14 @@
+package com.fds.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record BacktestRequest(
+        @JsonProperty("rule_set_files")
+        List<String> ruleSetFiles,
+        @JsonProperty("days")
+        Integer days,
+        @JsonProperty("include_active")
+        Boolean includeActive
+) {}
@@ -0,0 +1,16 @@
+package com.fds.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record BacktestResult(
+        @JsonProperty("files")
+        int files,
+        @JsonProperty("events")
+        long events,
+        @JsonProperty("elapsed_ms")
+        long elapsedMs,
+        @JsonProperty("reports")
+        List<BacktestReport> reports
+) {}
@@ -2,6 +2,7 @@ package com.fds.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+// 값이 없는 필드(로그인 이벤트의 amount 등)도 null로 전송해 n8n webhook payload의 키 구성을 유지
 public record FdsEvent(
         @JsonProperty("ts")
         String ts,
@@ -26,6 +27,17 @@ public record FdsEvent(
         @JsonProperty("to_account_id")
         String toAccountId,
         @JsonProperty("avgAmount")
-        double avgAmount
+        double avgAmount,
+        // src_ip 평판 (INTERNAL/PROXY/TOR 조합, 쉼표 구분)과 IP 대역 기준 국가
+        @JsonProperty("ip_flags")
+        String ipFlags,
+        @JsonProperty("ip_country")
+        String ipCountry,
+        // 수취 계좌의 fds.recipient-graph.window 내 고유 송금자 수와 그중 이 송금자의 송금 횟수
+        // (로그인 이벤트, 그래프 용량 초과로 기록하지 못한 송금은 null)
+        @JsonProperty("recipient_fan_in")
+        Integer recipientFanIn,
+        @JsonProperty("recipient_sender_tx_count")
+        Integer recipientSenderTxCount
 ) {}
 
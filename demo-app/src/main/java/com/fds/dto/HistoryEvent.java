@@ -0,0 +1,24 @@
+package com.fds.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record HistoryEvent(
+        @JsonProperty("timestamp")
+        String timestamp,
+        @JsonProperty("event_type")
+        String eventType,
+        @JsonProperty("amount")
+        Long amount,
+        @JsonProperty("country")
+        String country,
+        @JsonProperty("risk_level")
+        String riskLevel,
+        @JsonProperty("src_ip")
+        String srcIp,
+        @JsonProperty("ip_flags")
+        String ipFlags,
+        @JsonProperty("ip_country")
+        String ipCountry
+) {}
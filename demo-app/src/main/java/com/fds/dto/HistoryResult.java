@@ -0,0 +1,32 @@
+package com.fds.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record HistoryResult(
+        @JsonProperty("user_id")
+        String userId,
+        @JsonProperty("from")
+        String from,
+        @JsonProperty("to")
+        String to,
+        @JsonProperty("compacted_days")
+        int compactedDays,
+        @JsonProperty("raw_days")
+        int rawDays,
+        @JsonProperty("elapsed_ms")
+        long elapsedMs,
+        @JsonProperty("aggregates")
+        Map<String, Object> aggregates,
+        @JsonProperty("timeline")
+        List<HistoryEvent> timeline,
+        @JsonProperty("truncated")
+        Boolean truncated,
+        // 원본 로그 샘플링(fds.rollup.raw-sample-rate < 1.0) 중 원본 로그로 조회한 일자가 있으면 true
+        @JsonProperty("sampled")
+        Boolean sampled
+) {}
@@ -3,6 +3,8 @@ package com.fds.dto;
 public record LoginRequest(
         String userId,
         String password,
-        String country
+        String country,
+        // 추가 인증(/auth/verify) 시 승인할 송금액
+        Long amount
 ) {}
 
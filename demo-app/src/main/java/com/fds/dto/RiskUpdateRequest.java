@@ -0,0 +1,16 @@
+package com.fds.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record RiskUpdateRequest(
+        @JsonProperty("user_id")
+        String userId,
+        @JsonProperty("risk_level")
+        String riskLevel,
+        @JsonProperty("score")
+        Integer score,
+        @JsonProperty("triggered_rules")
+        String triggeredRules,
+        @JsonProperty("event_id")
+        String eventId
+) {}
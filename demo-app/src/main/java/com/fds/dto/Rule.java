@@ -0,0 +1,21 @@
+package com.fds.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// Google Sheets Rule_Set 시트의 한 행 (JSON 후보 룰셋 파일도 같은 컬럼명을 사용)
+public record Rule(
+        @JsonProperty("Category")
+        String category,
+        @JsonProperty("Rule_Name")
+        String ruleName,
+        @JsonProperty("Target_Field")
+        String targetField,
+        @JsonProperty("Operator")
+        String operator,
+        @JsonProperty("Threshold")
+        String threshold,
+        @JsonProperty("Score")
+        int score,
+        @JsonProperty("Is_Active")
+        boolean active
+) {}
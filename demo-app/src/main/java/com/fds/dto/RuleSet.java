@@ -0,0 +1,16 @@
+package com.fds.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record RuleSet(
+        @JsonProperty("name")
+        String name,
+        @JsonProperty("high_threshold")
+        int highThreshold,
+        @JsonProperty("medium_threshold")
+        int mediumThreshold,
+        @JsonProperty("rules")
+        List<Rule> rules
+) {}
@@ -3,6 +3,9 @@ package com.fds.dto;
 public record TransferRequest(
         String userId,
         Long amount,
-        String country
+        String country,
+        // 생략하면 샘플 수취 계좌
+        String toBank,
+        String toAccountId
 ) {}
 
@@ -0,0 +1,9 @@
+package com.fds.dto;
+
+public record UserRiskState(
+        int score,
+        boolean blocked
+) {
+    // Google Sheets 조회 실패/미등록 사용자 기본값 (기존 fail-open 동작과 동일)
+    public static final UserRiskState UNKNOWN = new UserRiskState(0, false);
+}
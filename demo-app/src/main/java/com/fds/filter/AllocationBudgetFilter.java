@@ -0,0 +1,104 @@
+package com.fds.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+// 로그인/송금 요청 처리 스레드의 요청당 할당 바이트를 측정해 예산과 비교 (fds.request.allocated.bytes)
+// 측정은 ThreadMXBean의 스레드별 할당 카운터(JFR jdk.ThreadAllocationStatistics와 같은 값)를 필터 진입/종료 시 읽어 계산
+// 요청 스레드 밖(n8n 전송, 로그 appender 등)의 할당은 포함하지 않음
+// RateLimitFilter 안쪽에서 실행되므로 429로 끝난 요청은 측정하지 않음
+// 예산 회귀 검사는 AllocationBudgetFilterTest (./gradlew test)
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 11)
+@RequiredArgsConstructor
+public class AllocationBudgetFilter extends OncePerRequestFilter {
+
+    static final String LOGIN_PATH = "/auth/login";
+    static final String TRANSFER_PATH = "/api/transfer";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fds.alloc.budget.login:262144}")
+    private long loginBudget;
+
+    @Value("${fds.alloc.budget.transfer:524288}")
+    private long transferBudget;
+
+    private final Map<String, PathBudget> budgets = new HashMap<>();
+
+    private static final class PathBudget {
+        final long budgetBytes;
+        final DistributionSummary allocated;
+        final Counter exceeded;
+
+        PathBudget(long budgetBytes, DistributionSummary allocated, Counter exceeded) {
+            this.budgetBytes = budgetBytes;
+            this.allocated = allocated;
+            this.exceeded = exceeded;
+        }
+
+        void record(long bytes) {
+            allocated.record(bytes);
+            if (bytes > budgetBytes) {
+                exceeded.increment();
+            }
+        }
+    }
+
+    @Override
+    protected void initFilterBean() {
+        // 요청마다 meter를 조회하지 않도록 경로별 meter를 미리 등록
+        register(LOGIN_PATH, loginBudget);
+        register(TRANSFER_PATH, transferBudget);
+
+        if (!THREADS.isThreadAllocatedMemorySupported() || !THREADS.isThreadAllocatedMemoryEnabled()) {
+            log.warn("Thread allocation measurement is not available on this JVM, allocation budget disabled");
+            budgets.clear();
+        }
+    }
+
+    private void register(String path, long budgetBytes) {
+        budgets.put(path, new PathBudget(budgetBytes,
+                DistributionSummary.builder("fds.request.allocated.bytes").tag("path", path)
+                        .baseUnit("bytes").register(meterRegistry),
+                Counter.builder("fds.request.allocation.budget.exceeded").tag("path", path)
+                        .register(meterRegistry)));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !budgets.containsKey(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            budgets.get(request.getRequestURI()).record(THREADS.getCurrentThreadAllocatedBytes() - before);
+        }
+    }
+}
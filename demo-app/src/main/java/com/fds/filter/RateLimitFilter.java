@@ -0,0 +1,248 @@
+package com.fds.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fds.service.ClientIpResolver;
+import com.fds.service.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/auth/login";
+    private static final String VERIFY_PATH = "/auth/verify";
+    private static final String TRANSFER_PATH = "/api/transfer";
+    private static final String TRANSFER_BATCH_PATH = "/api/transfer/batch";
+    private static final String LEGACY_TRANSFER_PATH = "/transfer";
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final ClientIpResolver clientIpResolver;
+
+    @Value("${fds.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    // 엔드포인트별 분당 허용 횟수 (0 이하이면 제한 없음)
+    @Value("${fds.rate-limit.login.per-user:10}")
+    private int loginPerUser;
+
+    @Value("${fds.rate-limit.login.per-ip:30}")
+    private int loginPerIp;
+
+    @Value("${fds.rate-limit.verify.per-user:5}")
+    private int verifyPerUser;
+
+    @Value("${fds.rate-limit.verify.per-ip:30}")
+    private int verifyPerIp;
+
+    @Value("${fds.rate-limit.transfer.per-user:20}")
+    private int transferPerUser;
+
+    @Value("${fds.rate-limit.transfer.per-ip:60}")
+    private int transferPerIp;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !LOGIN_PATH.equals(path) && !VERIFY_PATH.equals(path) && !isTransferPath(path);
+    }
+
+    private static boolean isTransferPath(String path) {
+        return TRANSFER_PATH.equals(path) || TRANSFER_BATCH_PATH.equals(path) || LEGACY_TRANSFER_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        String ip = clientIpResolver.resolve(request);
+
+        // 송금 엔드포인트(단건/배치/legacy)는 같은 한도를 공유하도록 같은 key를 사용
+        boolean transfer = isTransferPath(path);
+        String limitKey = transfer ? TRANSFER_PATH : path;
+
+        HttpServletRequest target = request;
+        // userId -> 차감할 건수 (배치는 항목 수만큼)
+        Map<String, Integer> permitsByUser = new HashMap<>();
+        int perUser;
+        int perIp;
+
+        if (TRANSFER_PATH.equals(path)) {
+            addUser(permitsByUser, request.getParameter("userId"));
+        } else {
+            // 그 외 요청은 JSON body에서 userId를 꺼내야 하므로 body를 한 번만 읽어 재사용
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            target = cached;
+            extractUserIds(cached.body, permitsByUser);
+        }
+
+        if (transfer) {
+            perUser = transferPerUser;
+            perIp = transferPerIp;
+        } else {
+            boolean login = LOGIN_PATH.equals(path);
+            perUser = login ? loginPerUser : verifyPerUser;
+            perIp = login ? loginPerIp : verifyPerIp;
+        }
+
+        // IP와 사용자별 한도를 차례로 차감하고, 중간에 거절되면 앞에서 차감한 만큼 되돌려
+        // 거절된 요청(배치 전체 포함)이 한도를 소비하지 않도록 함
+        String ipKey = limitKey + ":ip:" + ip;
+        long retryAfterMillis = rateLimiter.tryAcquire(ipKey, perIp);
+        String limitedUser = null;
+        List<Map.Entry<String, Integer>> acquired = new ArrayList<>(permitsByUser.size());
+        for (Map.Entry<String, Integer> entry : permitsByUser.entrySet()) {
+            if (retryAfterMillis > 0) {
+                break;
+            }
+            retryAfterMillis = rateLimiter.tryAcquire(limitKey + ":user:" + entry.getKey(), perUser, entry.getValue());
+            limitedUser = entry.getKey();
+            if (retryAfterMillis == 0) {
+                acquired.add(entry);
+            }
+        }
+
+        if (retryAfterMillis > 0 && limitedUser != null) {
+            rateLimiter.release(ipKey, perIp, 1);
+            for (Map.Entry<String, Integer> entry : acquired) {
+                rateLimiter.release(limitKey + ":user:" + entry.getKey(), perUser, entry.getValue());
+            }
+        }
+
+        if (retryAfterMillis > 0) {
+            log.warn("RATE_LIMITED path={} userId={} srcIp={} retryAfterMs={}", path, limitedUser, ip, retryAfterMillis);
+            writeTooManyRequests(response, retryAfterMillis);
+            return;
+        }
+
+        chain.doFilter(target, response);
+    }
+
+    private static void addUser(Map<String, Integer> permitsByUser, String userId) {
+        if (userId != null && !userId.isBlank()) {
+            permitsByUser.merge(userId, 1, Integer::sum);
+        }
+    }
+
+    private void writeTooManyRequests(HttpServletResponse response, long retryAfterMillis) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf((retryAfterMillis + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "status", "RATE_LIMITED",
+                "message", "요청이 너무 많습니다. 잠시 후 다시 시도해주세요."
+        ));
+    }
+
+    // 단건 요청은 {"userId": ...}, 배치 송금은 [{"userId": ...}, ...]
+    private void extractUserIds(byte[] body, Map<String, Integer> permitsByUser) {
+        if (body.length == 0) {
+            return;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            if (node.isArray()) {
+                for (JsonNode item : node) {
+                    addUser(permitsByUser, textOrNull(item.path("userId")));
+                }
+            } else {
+                addUser(permitsByUser, textOrNull(node.path("userId")));
+            }
+        } catch (IOException e) {
+            // 형식이 잘못된 body는 IP 한도만 적용하고 컨트롤러에서 거절
+        }
+    }
+
+    private static String textOrNull(JsonNode node) {
+        return node.isTextual() ? node.asText() : null;
+    }
+
+    // body를 메모리에 보관해 컨트롤러에서 다시 읽을 수 있게 하는 래퍼
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // body가 이미 메모리에 있으므로 등록 즉시 읽을 수 있음을 알림
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.fds.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// JVM 시작 시각 기준 time-to-ready / time-to-first-request 측정
+// fds.startup.benchmark=true이면 기동 직후 자기 자신에게 요청을 한 번 보내고 결과를 남긴 뒤 종료 (./gradlew startupBenchmark)
+@Slf4j
+@Component
+@Lazy(false)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class StartupMetricsFilter extends OncePerRequestFilter {
+
+    private static final long FIRST_REQUEST_WAIT_SECONDS = 10;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fds.startup.benchmark:false}")
+    private boolean benchmark;
+
+    private volatile long readyMillis = -1;
+    private volatile long firstRequestMillis = -1;
+
+    // 응답은 필터의 finally보다 먼저 클라이언트에 도착할 수 있으므로 benchmark는 기록될 때까지 기다림
+    private final CountDownLatch firstRequestRecorded = new CountDownLatch(1);
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        readyMillis = sinceJvmStart();
+        TimeGauge.builder("fds.startup.ready", this, TimeUnit.MILLISECONDS, f -> f.readyMillis)
+                .register(meterRegistry);
+        TimeGauge.builder("fds.startup.first.request", this, TimeUnit.MILLISECONDS, f -> f.firstRequestMillis)
+                .register(meterRegistry);
+
+        log.info("STARTUP_READY timeToReadyMs={}", readyMillis);
+
+        if (benchmark) {
+            Thread thread = new Thread(() -> runBenchmark(event.getApplicationContext()), "startup-benchmark");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // 첫 요청의 응답 완료 시점만 기록 (이후 요청은 volatile 읽기 한 번)
+            if (firstRequestMillis < 0) {
+                recordFirstRequest(request.getRequestURI());
+            }
+        }
+    }
+
+    private synchronized void recordFirstRequest(String path) {
+        if (firstRequestMillis < 0) {
+            firstRequestMillis = sinceJvmStart();
+            firstRequestRecorded.countDown();
+            log.info("STARTUP_FIRST_REQUEST timeToFirstRequestMs={} path={}", firstRequestMillis, path);
+        }
+    }
+
+    private void runBenchmark(ConfigurableApplicationContext context) {
+        int exitCode = 0;
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port", "8080");
+            HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+
+            if (!firstRequestRecorded.await(FIRST_REQUEST_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Startup benchmark: first request was not recorded within {}s", FIRST_REQUEST_WAIT_SECONDS);
+            }
+            log.info("STARTUP_BENCHMARK timeToReadyMs={} timeToFirstRequestMs={} status={}",
+                    readyMillis, firstRequestMillis, response.statusCode());
+        } catch (Exception e) {
+            log.error("Startup benchmark request failed", e);
+            exitCode = 1;
+        }
+
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
@@ -12,9 +12,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 
@@ -27,6 +25,7 @@ public class AuthService {
 
     private static final String RESULT_SUCCESS = "SUCCESS";
     private static final String RESULT_FAILURE = "FAILURE";
+    private static final String UNKNOWN_SAMPLE_IP = "203.0.113.200";
 
     private static final Map<String, User> USERS = new ConcurrentHashMap<>();
 
@@ -35,16 +34,12 @@ public class AuthService {
         USERS.put("user_02", new User("user_02", "12341234", false));
     }
 
-    private static final Map<String, String> COUNTRY_IP_MAP = Map.of(
-            "KR", "203.0.113.10",
-            "US", "198.51.100.23",
-            "JP", "192.0.2.44",
-            "SG", "203.0.113.77",
-            "GB", "198.51.100.88"
-    );
-
     private final EventSender eventSender;
     private final GoogleSheetsService googleSheetsService;
+    private final FdsEventFactory eventFactory;
+    private final EventRollup eventRollup;
+    private final IpIntelligence ipIntelligence;
+    private final ClientIpResolver clientIpResolver;
 
     public String login(String userId, String password, String country, HttpServletRequest request) {
         String normalizedCountry = normalizeCountry(country);
@@ -55,12 +50,14 @@ public class AuthService {
         User user = USERS.get(userId);
         if (user == null) {
             log.warn("LOGIN_FAILURE userId={} reason=USER_NOT_FOUND", userId);
+            eventRollup.record("LOGIN", normalizedCountry, now, "UNKNOWN", RESULT_FAILURE, null);
             return RESULT_FAILURE;
         }
 
         // 비밀번호 검증
         if (!user.getPassword().equals(password)) {
             log.warn("LOGIN_FAILURE userId={} reason=INVALID_PASSWORD", userId);
+            eventRollup.record("LOGIN", normalizedCountry, now, "UNKNOWN", RESULT_FAILURE, null);
             return RESULT_FAILURE;
         }
 
@@ -69,6 +66,7 @@ public class AuthService {
         if (isBlockedInSheets) {
             log.warn("LOGIN_BLOCKED userId={} country={} srcIp={} blocked=true (from Google Sheets)",
                     userId, normalizedCountry, srcIp);
+            eventRollup.record("LOGIN", normalizedCountry, now, "UNKNOWN", "BLOCKED", null);
             return "BLOCKED";
         }
 
@@ -82,6 +80,7 @@ public class AuthService {
 
             // Google Sheets에 blocked 설정
             googleSheetsService.blockUser(userId);
+            eventRollup.record("LOGIN", normalizedCountry, now, riskLevel, "BLOCKED", null);
 
             return "BLOCKED";
         }
@@ -92,21 +91,32 @@ public class AuthService {
                     userId, normalizedCountry, srcIp);
         }
 
-        // 로그인 성공 시에만 ELK 로그
-        try {
-            MDC.put("eventType", "LOGIN");
-            MDC.put("userId", userId);
-            MDC.put("country", normalizedCountry);
-            MDC.put("srcIp", srcIp);
-            MDC.put("riskLevel", riskLevel);
-            MDC.put("timestamp", now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-
-            elkLog.info("LOGIN_SUCCESS");
-        } finally {
-            MDC.clear();
+        // IP 평판은 이벤트를 만들 때 한 번만 조회하고 ELK 로그에도 같은 값을 남김
+        FdsEvent event = createAuthEvent(now, "LOGIN", userId, normalizedCountry, srcIp, RESULT_SUCCESS);
+
+        // 로그인 성공 시에만 ELK 로그 (집계는 항상, 원본 로그는 샘플링 비율만큼)
+        eventRollup.record("LOGIN", normalizedCountry, now, riskLevel, RESULT_SUCCESS, null);
+        if (eventRollup.sampleRaw("LOGIN")) {
+            try {
+                MDC.put("eventType", "LOGIN");
+                MDC.put("userId", userId);
+                MDC.put("country", normalizedCountry);
+                MDC.put("srcIp", srcIp);
+                if (event.ipFlags() != null) {
+                    MDC.put("ipFlags", event.ipFlags());
+                }
+                if (event.ipCountry() != null) {
+                    MDC.put("ipCountry", event.ipCountry());
+                }
+                MDC.put("riskLevel", riskLevel);
+                MDC.put("timestamp", now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+
+                elkLog.info("LOGIN_SUCCESS");
+            } finally {
+                MDC.clear();
+            }
         }
 
-        FdsEvent event = createAuthEvent("LOGIN", userId, normalizedCountry, srcIp, RESULT_SUCCESS);
         eventSender.send(event);
 
         return RESULT_SUCCESS;
@@ -124,7 +134,7 @@ public class AuthService {
         }
 
         // FDS 이벤트 전송
-        FdsEvent event = createAuthEvent("LOGOUT", userId, normalizedCountry, srcIp, RESULT_SUCCESS);
+        FdsEvent event = createAuthEvent(now, "LOGOUT", userId, normalizedCountry, srcIp, RESULT_SUCCESS);
         eventSender.send(event);
 
         // ELK 로그 기록
@@ -153,41 +163,24 @@ public class AuthService {
         }
     }
 
-    private FdsEvent createAuthEvent(String eventType, String userId, String country, String srcIp, String result) {
-        ZonedDateTime now = ZonedDateTime.now();
-        String normalizedCountry = normalizeCountry(country);
-        return new FdsEvent(
-                now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME),
-                eventType,
-                UUID.randomUUID().toString(),
-                userId,
-                result,
-                srcIp,
-                country,
-                now.getHour(),
-                null,
-                null,
-                null,
-                0.0
-        );
+    // 호출한 쪽의 시각(now)을 그대로 사용해 ELK 로그와 이벤트의 ts를 맞춤
+    private FdsEvent createAuthEvent(ZonedDateTime now, String eventType, String userId, String country, String srcIp,
+                                     String result) {
+        return eventFactory.create(now, eventType, userId, result, srcIp, country, null, null, null, 0.0, null);
     }
 
     private String normalizeCountry(String country) {
-        if (country == null || country.isBlank()) {
-            return "UNKNOWN";
-        }
-        return country.trim().toUpperCase(Locale.ROOT);
+        return CountryCodes.normalize(country);
     }
 
+    // X-Forwarded-For는 신뢰 프록시를 거친 hop만 사용 (RateLimitFilter와 같은 기준)
     private String getClientIp(HttpServletRequest request, String country) {
-        String ip = request.getHeader("X-Forwarded-For");
-
-        if (ip == null || ip.isEmpty()) {
-            ip = request.getRemoteAddr();
-        }
+        String ip = clientIpResolver.resolve(request);
 
+        // 로컬 테스트: country.csv의 국가 대역 IP를 사용하고, 대역이 없는 국가는 어느 대역에도 없는 샘플 IP
         if ("0:0:0:0:0:0:0:1".equals(ip) || "127.0.0.1".equals(ip)) {
-            ip = COUNTRY_IP_MAP.getOrDefault(country, "203.0.113.200");
+            String sampleIp = ipIntelligence.sampleIp(country);
+            ip = sampleIp != null ? sampleIp : UNKNOWN_SAMPLE_IP;
         }
 
         return ip;
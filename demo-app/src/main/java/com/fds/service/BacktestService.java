@@ -0,0 +1,319 @@
+package com.fds.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fds.dto.BacktestReport;
+import com.fds.dto.BacktestResult;
+import com.fds.dto.RuleSet;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// logs/fds-*.json을 재생해 후보 룰셋별 적중 수, 점수 분포, 차단 비율을 계산
+// 파일(일자) 단위로 fork-join 분할하며, 사용자별 평균 금액/tx_count는 n8n과 같이 파일(당일) 안에서만 누적
+// 로그에는 사용자의 누적 Current_Total_Score가 없으므로 이벤트마다 0점에서 시작해 평가
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BacktestService {
+
+    private static final String LOG_DIR = "logs";
+    private static final Pattern LOG_FILE_PATTERN = Pattern.compile("fds-(\\d{4}-\\d{2}-\\d{2})\\.json");
+    private static final long TX_COUNT_WINDOW_MILLIS = Duration.ofMinutes(10).toMillis();
+    private static final int SCORE_BUCKET_SIZE = 10;
+    private static final int SCORE_BUCKETS = 11;
+
+    private final ObjectMapper objectMapper;
+
+    private final ForkJoinPool replayPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    void shutdown() {
+        replayPool.shutdownNow();
+    }
+
+    public BacktestResult run(List<RuleSet> ruleSets, int days) {
+        long start = System.nanoTime();
+
+        List<File> files = listLogFiles(days);
+        List<CompiledRuleSet> compiled = new ArrayList<>(ruleSets.size());
+        for (RuleSet ruleSet : ruleSets) {
+            compiled.add(new CompiledRuleSet(ruleSet));
+        }
+
+        List<RuleSetStats> stats = files.isEmpty()
+                ? newStats(compiled)
+                : replayPool.invoke(new ReplayTask(files, 0, files.size(), compiled));
+
+        List<BacktestReport> reports = new ArrayList<>(stats.size());
+        for (RuleSetStats ruleSetStats : stats) {
+            reports.add(ruleSetStats.toReport());
+        }
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        long events = stats.isEmpty() ? 0 : stats.get(0).events;
+        log.info("BACKTEST_DONE files={} events={} ruleSets={} elapsedMs={}", files.size(), events, ruleSets.size(), elapsedMs);
+
+        return new BacktestResult(files.size(), events, elapsedMs, reports);
+    }
+
+    private List<File> listLogFiles(int days) {
+        File[] candidates = new File(LOG_DIR).listFiles();
+        if (candidates == null) {
+            log.warn("Log directory not found: {}", LOG_DIR);
+            return List.of();
+        }
+
+        LocalDate from = LocalDate.now().minusDays(Math.max(days, 1) - 1L);
+        List<File> files = new ArrayList<>();
+        for (File file : candidates) {
+            Matcher matcher = LOG_FILE_PATTERN.matcher(file.getName());
+            if (matcher.matches() && !LocalDate.parse(matcher.group(1)).isBefore(from)) {
+                files.add(file);
+            }
+        }
+        files.sort(Comparator.comparing(File::getName));
+        return files;
+    }
+
+    private List<RuleSetStats> newStats(List<CompiledRuleSet> compiled) {
+        List<RuleSetStats> stats = new ArrayList<>(compiled.size());
+        for (CompiledRuleSet ruleSet : compiled) {
+            stats.add(new RuleSetStats(ruleSet));
+        }
+        return stats;
+    }
+
+    private List<RuleSetStats> replayFile(File file, List<CompiledRuleSet> compiled) {
+        List<RuleSetStats> stats = newStats(compiled);
+        Map<String, UserReplayState> users = new HashMap<>();
+        Map<String, Object> fields = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    continue;
+                }
+
+                String eventType = node.path("eventType").asText(null);
+                String userId = node.path("userId").asText(null);
+                if (eventType == null || userId == null) {
+                    continue;
+                }
+
+                OffsetDateTime time;
+                try {
+                    time = OffsetDateTime.parse(node.path("timestamp").asText(node.path("@timestamp").asText()));
+                } catch (DateTimeParseException e) {
+                    continue;
+                }
+                long epochMillis = time.toInstant().toEpochMilli();
+
+                boolean transfer = "TRANSFER".equals(eventType);
+                Long amount = null;
+                if (node.hasNonNull("amount")) {
+                    try {
+                        amount = Long.parseLong(node.path("amount").asText());
+                    } catch (NumberFormatException ignored) {
+                        // 금액 없는 이벤트로 평가
+                    }
+                }
+
+                UserReplayState user = users.computeIfAbsent(userId, k -> new UserReplayState());
+                if (transfer) {
+                    // 앱은 평가 전에 tx_count를 증가시키므로 현재 송금을 포함
+                    user.recordTransfer(epochMillis);
+                }
+
+                fields.clear();
+                fields.put("event_type", eventType);
+                fields.put("user_id", userId);
+                fields.put("country", node.path("country").asText(null));
+                fields.put("src_ip", node.path("srcIp").asText(null));
+                fields.put("ip_flags", node.path("ipFlags").asText(null));
+                fields.put("ip_country", node.path("ipCountry").asText(null));
+                fields.put("to_bank", node.path("toBank").asText(null));
+                fields.put("hour", time.getHour());
+                fields.put("amount", amount);
+                fields.put("avgAmount", user.averageAmount());
+                fields.put("tx_count", user.txCount(epochMillis));
+
+                for (RuleSetStats ruleSetStats : stats) {
+                    ruleSetStats.record(eventType, fields);
+                }
+
+                // 평균 금액은 현재 송금 이전 기록으로 계산 (앱의 당일 평균과 동일)
+                if (transfer && amount != null) {
+                    user.addAmount(amount);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error reading log file: {}", file, e);
+        }
+        return stats;
+    }
+
+    private class ReplayTask extends RecursiveTask<List<RuleSetStats>> {
+
+        private final List<File> files;
+        private final int from;
+        private final int to;
+        private final List<CompiledRuleSet> compiled;
+
+        ReplayTask(List<File> files, int from, int to, List<CompiledRuleSet> compiled) {
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.compiled = compiled;
+        }
+
+        @Override
+        protected List<RuleSetStats> compute() {
+            if (to - from == 1) {
+                return replayFile(files.get(from), compiled);
+            }
+
+            int mid = (from + to) >>> 1;
+            ReplayTask left = new ReplayTask(files, from, mid, compiled);
+            left.fork();
+            List<RuleSetStats> right = new ReplayTask(files, mid, to, compiled).compute();
+            List<RuleSetStats> merged = left.join();
+
+            for (int i = 0; i < merged.size(); i++) {
+                merged.get(i).merge(right.get(i));
+            }
+            return merged;
+        }
+    }
+
+    private static final class UserReplayState {
+
+        private final ArrayDeque<Long> transferTimes = new ArrayDeque<>();
+        private double amountSum;
+        private long amountCount;
+
+        void recordTransfer(long epochMillis) {
+            transferTimes.addLast(epochMillis);
+        }
+
+        int txCount(long epochMillis) {
+            while (!transferTimes.isEmpty() && epochMillis - transferTimes.peekFirst() > TX_COUNT_WINDOW_MILLIS) {
+                transferTimes.pollFirst();
+            }
+            return transferTimes.size();
+        }
+
+        void addAmount(long amount) {
+            amountSum += amount;
+            amountCount++;
+        }
+
+        double averageAmount() {
+            return amountCount == 0 ? 0.0 : amountSum / amountCount;
+        }
+    }
+
+    private static final class RuleSetStats {
+
+        private final CompiledRuleSet ruleSet;
+        private final long[] ruleHits;
+        private final long[] scoreBuckets = new long[SCORE_BUCKETS];
+        private long events;
+        private long high;
+        private long medium;
+        private long low;
+
+        RuleSetStats(CompiledRuleSet ruleSet) {
+            this.ruleSet = ruleSet;
+            this.ruleHits = new long[ruleSet.ruleCount()];
+        }
+
+        void record(String eventType, Map<String, Object> fields) {
+            int score = 0;
+            for (int i = 0; i < ruleHits.length; i++) {
+                if (ruleSet.matches(i, eventType, fields)) {
+                    score += ruleSet.ruleScore(i);
+                    ruleHits[i]++;
+                }
+            }
+
+            events++;
+            scoreBuckets[Math.min(Math.max(score, 0) / SCORE_BUCKET_SIZE, SCORE_BUCKETS - 1)]++;
+
+            switch (ruleSet.riskLevel(score)) {
+                case "HIGH" -> high++;
+                case "MEDIUM" -> medium++;
+                default -> low++;
+            }
+        }
+
+        void merge(RuleSetStats other) {
+            events += other.events;
+            high += other.high;
+            medium += other.medium;
+            low += other.low;
+            for (int i = 0; i < ruleHits.length; i++) {
+                ruleHits[i] += other.ruleHits[i];
+            }
+            for (int i = 0; i < SCORE_BUCKETS; i++) {
+                scoreBuckets[i] += other.scoreBuckets[i];
+            }
+        }
+
+        BacktestReport toReport() {
+            Map<String, Long> hits = new LinkedHashMap<>();
+            for (int i = 0; i < ruleHits.length; i++) {
+                hits.merge(ruleSet.ruleName(i), ruleHits[i], Long::sum);
+            }
+
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            for (int i = 0; i < SCORE_BUCKETS; i++) {
+                String label = i == SCORE_BUCKETS - 1
+                        ? (i * SCORE_BUCKET_SIZE) + "+"
+                        : (i * SCORE_BUCKET_SIZE) + "-" + (i * SCORE_BUCKET_SIZE + SCORE_BUCKET_SIZE - 1);
+                distribution.put(label, scoreBuckets[i]);
+            }
+
+            Map<String, Long> riskLevels = new LinkedHashMap<>();
+            riskLevels.put("HIGH", high);
+            riskLevels.put("MEDIUM", medium);
+            riskLevels.put("LOW", low);
+
+            return new BacktestReport(
+                    ruleSet.name(),
+                    events,
+                    hits,
+                    distribution,
+                    riskLevels,
+                    events == 0 ? 0.0 : (double) high / events,
+                    events == 0 ? 0.0 : (double) medium / events
+            );
+        }
+    }
+}
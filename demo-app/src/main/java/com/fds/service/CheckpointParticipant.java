@@ -0,0 +1,35 @@
+package com.fds.service;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+// CheckpointService가 주기적으로 스냅샷 파일에 기록하고 시작 시 복원하는 인메모리 상태
+public interface CheckpointParticipant {
+
+    // 스냅샷 파일 안에서 participant를 구분하는 레코드 타입 (0은 체크포인트 마커로 예약)
+    byte recordType();
+
+    // full=true이면 전체 상태를, false이면 마지막 체크포인트 이후 변경된 항목만 레코드 단위로 sink에 전달
+    void writeRecords(boolean full, Consumer<byte[]> sink) throws IOException;
+
+    void readRecord(ByteBuffer record);
+
+    // 복원 후 체크포인트 시각 이후의 이벤트를 로그에서 다시 반영
+    default void replaySince(long checkpointEpochMillis) {
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,222 @@
+package com.fds.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// 인메모리 상태를 로컬 스냅샷 파일에 주기적으로 기록하고 재시작 시 복원
+// 파일 형식: [magic][version] 뒤에 [type:1][length:4][payload] 레코드가 이어짐
+// 평소에는 변경분만 append 하고, full-every 회마다 전체 스냅샷으로 다시 씀 (임시 파일 + atomic move)
+// 기록은 스케줄러 스레드에서 ConcurrentHashMap을 읽기만 하므로 요청 스레드를 멈추지 않음
+// lazy-initialization 프로파일에서도 첫 요청 전에 상태를 복원해야 하므로 항상 즉시 생성
+@Slf4j
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+public class CheckpointService {
+
+    private static final int MAGIC = 0x46445353; // "FDSS"
+    private static final int VERSION = 1;
+    private static final byte MARKER = 0;
+
+    private final List<CheckpointParticipant> participants;
+
+    @Value("${fds.checkpoint.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fds.checkpoint.path:state/fds-state.bin}")
+    private String snapshotPath;
+
+    @Value("${fds.checkpoint.full-every:20}")
+    private int fullEvery;
+
+    private int checkpointsSinceFull;
+
+    @PostConstruct
+    void restore() {
+        if (!enabled) {
+            return;
+        }
+
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            log.info("No checkpoint found at {}, starting cold", path);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Map<Byte, CheckpointParticipant> byType = new HashMap<>();
+        for (CheckpointParticipant participant : participants) {
+            byType.put(participant.recordType(), participant);
+        }
+
+        long checkpointMillis = 0;
+        int records = 0;
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.warn("Ignoring checkpoint with unknown format: {}", path);
+                return;
+            }
+
+            // 마지막 레코드가 기록 도중 끊겼으면 그 앞까지만 복원
+            while (buffer.remaining() >= 5) {
+                byte type = buffer.get();
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    log.warn("Truncated checkpoint record at offset {}", buffer.position());
+                    break;
+                }
+
+                ByteBuffer record = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+
+                if (type == MARKER) {
+                    checkpointMillis = record.getLong();
+                    continue;
+                }
+
+                CheckpointParticipant participant = byType.get(type);
+                if (participant != null) {
+                    participant.readRecord(record);
+                    records++;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to restore checkpoint from {}", path, e);
+            return;
+        }
+
+        for (CheckpointParticipant participant : participants) {
+            participant.replaySince(checkpointMillis);
+        }
+
+        log.info("CHECKPOINT_RESTORED records={} checkpointAt={} elapsedMs={}",
+                records, checkpointMillis, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${fds.checkpoint.interval:30000}")
+    public synchronized void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+
+        Path path = Paths.get(snapshotPath);
+        boolean full = !Files.exists(path) || checkpointsSinceFull >= fullEvery;
+
+        try {
+            long checkpointMillis = System.currentTimeMillis();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            if (full) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+            }
+
+            int records = 0;
+            for (CheckpointParticipant participant : participants) {
+                RecordCounter counter = new RecordCounter(out, participant.recordType());
+                participant.writeRecords(full, counter);
+                if (counter.failure != null) {
+                    throw counter.failure;
+                }
+                records += counter.count;
+            }
+
+            if (!full && records == 0) {
+                return;
+            }
+
+            out.writeByte(MARKER);
+            out.writeInt(Long.BYTES);
+            out.writeLong(checkpointMillis);
+            out.flush();
+
+            if (full) {
+                writeFull(path, bytes.toByteArray());
+                checkpointsSinceFull = 0;
+            } else {
+                append(path, bytes.toByteArray());
+                checkpointsSinceFull++;
+            }
+
+            log.info("CHECKPOINT_WRITTEN full={} records={} bytes={}", full, records, bytes.size());
+        } catch (IOException e) {
+            log.error("Failed to write checkpoint to {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    void checkpointOnShutdown() {
+        checkpoint();
+    }
+
+    private void writeFull(Path path, byte[] content) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+
+        Path temp = parent.resolve(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(content));
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void append(Path path, byte[] content) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(content));
+            channel.force(false);
+        }
+    }
+
+    // participant 레코드에 [type][length] 프레임을 붙여 기록
+    private static final class RecordCounter implements Consumer<byte[]> {
+
+        private final DataOutputStream out;
+        private final byte type;
+        private int count;
+        private IOException failure;
+
+        RecordCounter(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void accept(byte[] payload) {
+            try {
+                out.writeByte(type);
+                out.writeInt(payload.length);
+                out.write(payload);
+                count++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+    }
+}
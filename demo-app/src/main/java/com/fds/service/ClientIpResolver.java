@@ -0,0 +1,92 @@
+package com.fds.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// 요청의 실제 클라이언트 IP 결정 (rate limit, IP 평판 조회, 이벤트 src_ip 공통)
+// X-Forwarded-For는 클라이언트가 임의로 넣을 수 있으므로 직접 연결한 상대(remoteAddr)가 신뢰 프록시일 때만 사용하고,
+// 가장 가까운 hop(오른쪽)부터 신뢰 프록시를 건너뛴 첫 주소를 클라이언트로 봄
+@Slf4j
+@Component
+public class ClientIpResolver {
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    // 쉼표로 구분한 CIDR 목록 (비우면 X-Forwarded-For를 사용하지 않음)
+    @Value("${fds.client-ip.trusted-proxies:127.0.0.0/8,::1/128}")
+    private List<String> trustedProxies;
+
+    private final IpTrie trustedV4 = new IpTrie(32);
+    private final IpTrie trustedV6 = new IpTrie(128);
+
+    @PostConstruct
+    void init() {
+        for (String cidr : trustedProxies) {
+            String value = cidr.trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+
+            int slash = value.indexOf('/');
+            byte[] address = IpIntelligence.parseAddress(slash < 0 ? value : value.substring(0, slash));
+            int prefixLength = -1;
+            if (address != null) {
+                try {
+                    prefixLength = slash < 0 ? address.length * 8 : Integer.parseInt(value.substring(slash + 1).trim());
+                } catch (NumberFormatException ignored) {
+                    // 아래에서 잘못된 CIDR로 처리
+                }
+            }
+            if (address == null || prefixLength < 0 || prefixLength > address.length * 8) {
+                log.warn("Ignoring invalid trusted proxy CIDR: {}", cidr);
+                continue;
+            }
+            (address.length == 4 ? trustedV4 : trustedV6).insert(address, prefixLength, IpTrie.FLAG_INTERNAL, null);
+        }
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (!isTrustedProxy(remote)) {
+            return remote;
+        }
+
+        String forwarded = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwarded == null || forwarded.isBlank()) {
+            return remote;
+        }
+
+        // 오른쪽부터: 신뢰 프록시가 아닌 첫 hop이 클라이언트 (형식이 잘못된 hop에서는 그 직전 hop을 사용)
+        String client = remote;
+        int end = forwarded.length();
+        while (end > 0) {
+            int comma = forwarded.lastIndexOf(',', end - 1);
+            String hop = forwarded.substring(comma + 1, end).trim();
+            if (IpIntelligence.parseAddress(hop) == null) {
+                return client;
+            }
+            client = hop;
+            if (!isTrustedProxy(hop)) {
+                return hop;
+            }
+            end = comma < 0 ? 0 : comma;
+        }
+        return client;
+    }
+
+    private boolean isTrustedProxy(String ip) {
+        if (ip == null) {
+            return false;
+        }
+        byte[] address = IpIntelligence.parseAddress(ip);
+        if (address == null) {
+            return false;
+        }
+        return ((address.length == 4 ? trustedV4 : trustedV6).lookup(address) & IpTrie.FLAG_INTERNAL) != 0;
+    }
+}
@@ -0,0 +1,136 @@
+package com.fds.service;
+
+import com.fds.dto.Rule;
+import com.fds.dto.RuleSet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// n8n "위험도 계산" 노드와 같은 방식으로 룰셋을 평가 (임계값은 생성 시 한 번만 파싱)
+public final class CompiledRuleSet {
+
+    private final RuleSet ruleSet;
+    private final CompiledRule[] rules;
+
+    public CompiledRuleSet(RuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+
+        // rules 배열 검증은 RuleSetRepository에서 하고, 여기서는 누락을 빈 룰셋으로 평가하지 않도록만 막음
+        List<CompiledRule> compiled = new ArrayList<>();
+        for (Rule rule : Objects.requireNonNull(ruleSet.rules(), "rule set has no rules array")) {
+            if (rule.active() && rule.targetField() != null && rule.operator() != null) {
+                compiled.add(new CompiledRule(rule));
+            }
+        }
+        this.rules = compiled.toArray(new CompiledRule[0]);
+    }
+
+    public String name() {
+        return ruleSet.name();
+    }
+
+    // fields는 n8n webhook body와 같은 키(event_type, country, hour, amount, avgAmount, tx_count ...)를 사용
+    public boolean matches(int ruleIndex, String eventType, Map<String, Object> fields) {
+        return rules[ruleIndex].matches(eventType, fields);
+    }
+
+    public int ruleCount() {
+        return rules.length;
+    }
+
+    public String ruleName(int ruleIndex) {
+        return rules[ruleIndex].rule.ruleName();
+    }
+
+    public int ruleScore(int ruleIndex) {
+        return rules[ruleIndex].rule.score();
+    }
+
+    public String riskLevel(int score) {
+        if (score >= ruleSet.highThreshold()) {
+            return "HIGH";
+        } else if (score >= ruleSet.mediumThreshold()) {
+            return "MEDIUM";
+        } else {
+            return "LOW";
+        }
+    }
+
+    private static final class CompiledRule {
+
+        private final Rule rule;
+        private final double threshold;
+        private final double min;
+        private final double max;
+
+        CompiledRule(Rule rule) {
+            this.rule = rule;
+            this.threshold = parseDouble(rule.threshold());
+
+            double[] range = parseRange(rule.threshold());
+            this.min = range[0];
+            this.max = range[1];
+        }
+
+        boolean matches(String eventType, Map<String, Object> fields) {
+            // Rule_Set 시트는 Category(이벤트 유형)로 필터링해서 사용
+            if (rule.category() != null && !rule.category().isBlank() && !rule.category().equalsIgnoreCase(eventType)) {
+                return false;
+            }
+
+            Object actual = fields.get(rule.targetField());
+            if (actual == null) {
+                return false;
+            }
+
+            switch (rule.operator()) {
+                case "!=":
+                    return actual instanceof Number && !Double.isNaN(threshold)
+                            ? ((Number) actual).doubleValue() != threshold
+                            : !actual.toString().equals(rule.threshold());
+                case ">":
+                    return toDouble(actual) > threshold;
+                case ">=":
+                    // 당일 평균 금액 + Threshold 이상
+                    return toDouble(actual) >= toDouble(fields.getOrDefault("avgAmount", 0.0)) + threshold;
+                case "between":
+                    double value = toDouble(actual);
+                    return value >= min && value <= max;
+                default:
+                    return false;
+            }
+        }
+
+        private static double toDouble(Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            return parseDouble(value.toString());
+        }
+
+        private static double parseDouble(String value) {
+            if (value == null) {
+                return Double.NaN;
+            }
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        // "[22, 6]" / "['0', '5']" 형식
+        private static double[] parseRange(String value) {
+            if (value == null || !value.trim().startsWith("[")) {
+                return new double[]{Double.NaN, Double.NaN};
+            }
+            String[] parts = value.replace("[", "").replace("]", "").replace("'", "").replace("\"", "").split(",");
+            if (parts.length != 2) {
+                return new double[]{Double.NaN, Double.NaN};
+            }
+            return new double[]{parseDouble(parts[0]), parseDouble(parts[1])};
+        }
+    }
+}
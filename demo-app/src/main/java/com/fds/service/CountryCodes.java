@@ -0,0 +1,49 @@
+package com.fds.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 요청의 country 값을 정규화(trim + 대문자)하고 같은 코드는 같은 String 인스턴스로 반환
+// 입력 문자열 그대로 캐시를 먼저 조회하므로 반복되는 값("KR", "kr" ...)은 trim/toUpperCase 할당 없이 처리
+// 임의 입력으로 캐시가 커지지 않도록 MAX_CACHED 이후의 새 값은 캐시하지 않음
+final class CountryCodes {
+
+    static final String UNKNOWN = "UNKNOWN";
+
+    private static final int MAX_CACHED = 1024;
+    private static final Map<String, String> CANONICAL = new ConcurrentHashMap<>();
+
+    static {
+        for (String code : new String[]{"KR", "US", "JP", "SG", "GB", "CN", "RU", UNKNOWN}) {
+            CANONICAL.put(code, code);
+            CANONICAL.put(code.toLowerCase(Locale.ROOT), code);
+        }
+    }
+
+    private CountryCodes() {
+    }
+
+    static String normalize(String country) {
+        if (country == null) {
+            return UNKNOWN;
+        }
+
+        String cached = CANONICAL.get(country);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (country.isBlank()) {
+            return UNKNOWN;
+        }
+
+        String normalized = country.trim().toUpperCase(Locale.ROOT);
+        String canonical = CANONICAL.getOrDefault(normalized, normalized);
+        if (CANONICAL.size() < MAX_CACHED) {
+            CANONICAL.putIfAbsent(normalized, canonical);
+            CANONICAL.putIfAbsent(country, canonical);
+        }
+        return canonical;
+    }
+}
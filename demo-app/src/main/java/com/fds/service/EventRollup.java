@@ -0,0 +1,204 @@
+package com.fds.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// 로그인/송금 결과를 1분 단위 tumbling window로 집계해 ELK_ROLLUP(logs/fds-rollup-*.json)에 한 줄씩 기록
+// 키: eventType, country, hour, riskLevel, outcome / 값: 건수, 금액 합계, 금액 p50/p95/p99
+// 원본 이벤트 로그(FDS_JSON)는 fds.rollup.raw-sample-rate 비율로만 남길 수 있음
+// 원본 로그를 읽는 곳(평균 금액 seed, 백테스트, 체크포인트 재생, /history 압축)은 샘플링된 로그를 보정하지 않으므로
+// 비율을 1.0 미만으로 낮추면 그 결과의 건수/합계가 실제보다 작아짐 (isRawLogComplete로 확인)
+@Slf4j
+@Service
+public class EventRollup {
+
+    private static final Logger rollupLog = LoggerFactory.getLogger("ELK_ROLLUP");
+
+    private static final long WINDOW_MILLIS = 60_000L;
+
+    // 지난 window에 늦게 도착하는 기록을 기다리는 시간
+    private static final long FLUSH_GRACE_MILLIS = 2_000L;
+
+    // 금액 히스토그램: 1/4 옥타브(2^(1/4)) 간격, 0원 ~ 약 2^40원
+    private static final int SUB_BUCKETS = 4;
+    private static final int AMOUNT_BUCKETS = 40 * SUB_BUCKETS + 2;
+
+    private final Map<Long, Window> windows = new ConcurrentHashMap<>();
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    @Value("${fds.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fds.rollup.raw-sample-rate.login:1.0}")
+    private double loginSampleRate;
+
+    @Value("${fds.rollup.raw-sample-rate.transfer:1.0}")
+    private double transferSampleRate;
+
+    private record RollupKey(String eventType, String country, int hour, String riskLevel, String outcome) {}
+
+    // record는 read lock으로 동시에 기록하고, flush는 map에서 떼어낸 뒤 write lock으로 진행 중인 기록을 기다림
+    // 닫힌 window를 잡은 record는 새 window에 다시 기록하므로 flush와 겹쳐도 기록이 사라지지 않음
+    private static final class Window {
+        final Map<RollupKey, Cell> cells = new ConcurrentHashMap<>();
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        boolean closed;
+    }
+
+    private static final class Cell {
+        final LongAdder count = new LongAdder();
+        final LongAdder amountSum = new LongAdder();
+        final LongAdder amountCount = new LongAdder();
+        final AtomicLongArray amountBuckets = new AtomicLongArray(AMOUNT_BUCKETS);
+    }
+
+    @PostConstruct
+    void warnIfSampled() {
+        if (!isRawLogComplete()) {
+            log.warn("Raw FDS log sampling enabled (login={}, transfer={}): average seed, backtest, checkpoint replay "
+                    + "and history compaction read sampled logs", loginSampleRate, transferSampleRate);
+        }
+    }
+
+    public void record(String eventType, String country, ZonedDateTime at, String riskLevel, String outcome, Long amount) {
+        if (!enabled) {
+            return;
+        }
+
+        long minute = Math.floorDiv(at.toInstant().toEpochMilli(), WINDOW_MILLIS);
+        RollupKey key = new RollupKey(eventType, country, at.getHour(), riskLevel, outcome);
+
+        while (true) {
+            Window window = windows.computeIfAbsent(minute, m -> new Window());
+            window.lock.readLock().lock();
+            try {
+                if (window.closed) {
+                    continue;
+                }
+
+                Cell cell = window.cells.computeIfAbsent(key, k -> new Cell());
+                cell.count.increment();
+                if (amount != null) {
+                    cell.amountSum.add(amount);
+                    cell.amountCount.increment();
+                    cell.amountBuckets.incrementAndGet(bucketOf(amount));
+                }
+                return;
+            } finally {
+                window.lock.readLock().unlock();
+            }
+        }
+    }
+
+    // 원본 로그가 모든 로그인/송금을 담고 있는지 (샘플링 비율이 모두 1.0 이상)
+    public boolean isRawLogComplete() {
+        return loginSampleRate >= 1.0 && transferSampleRate >= 1.0;
+    }
+
+    // 원본 로그를 남길지 결정 (샘플링 비율 1.0이면 항상 true)
+    public boolean sampleRaw(String eventType) {
+        double rate = "TRANSFER".equals(eventType) ? transferSampleRate : loginSampleRate;
+        return rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    @Scheduled(fixedDelayString = "${fds.rollup.flush-interval:5000}")
+    public void flush() {
+        flushBefore(Math.floorDiv(System.currentTimeMillis() - FLUSH_GRACE_MILLIS, WINDOW_MILLIS));
+    }
+
+    @PreDestroy
+    void flushAll() {
+        flushBefore(Long.MAX_VALUE);
+    }
+
+    // grace 이후에 도착한 기록은 같은 windowStart의 새 window로 모여 다음 flush에서 한 줄 더 기록됨
+    private void flushBefore(long currentMinute) {
+        for (Long minute : windows.keySet()) {
+            if (minute >= currentMinute) {
+                continue;
+            }
+            Window window = windows.remove(minute);
+            if (window == null) {
+                continue;
+            }
+
+            window.lock.writeLock().lock();
+            try {
+                window.closed = true;
+            } finally {
+                window.lock.writeLock().unlock();
+            }
+
+            String windowStart = ZonedDateTime.ofInstant(Instant.ofEpochMilli(minute * WINDOW_MILLIS), zone)
+                    .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            for (Map.Entry<RollupKey, Cell> entry : window.cells.entrySet()) {
+                emit(windowStart, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void emit(String windowStart, RollupKey key, Cell cell) {
+        try {
+            MDC.put("windowStart", windowStart);
+            MDC.put("eventType", key.eventType());
+            MDC.put("country", key.country());
+            MDC.put("hour", String.valueOf(key.hour()));
+            MDC.put("riskLevel", key.riskLevel());
+            MDC.put("outcome", key.outcome());
+            MDC.put("count", String.valueOf(cell.count.sum()));
+
+            if (cell.amountCount.sum() > 0) {
+                MDC.put("amountSum", String.valueOf(cell.amountSum.sum()));
+                MDC.put("amountP50", String.valueOf(percentile(cell, 0.50)));
+                MDC.put("amountP95", String.valueOf(percentile(cell, 0.95)));
+                MDC.put("amountP99", String.valueOf(percentile(cell, 0.99)));
+            }
+
+            rollupLog.info("FDS_ROLLUP");
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private static int bucketOf(long amount) {
+        if (amount <= 0) {
+            return 0;
+        }
+        int bucket = 1 + (int) Math.floor(Math.log(amount) / Math.log(2) * SUB_BUCKETS);
+        return Math.min(bucket, AMOUNT_BUCKETS - 1);
+    }
+
+    // 버킷 상한값으로 근사 (상대 오차 약 19% 이내)
+    private static long percentile(Cell cell, double quantile) {
+        long total = cell.amountCount.sum();
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+
+        for (int i = 0; i < AMOUNT_BUCKETS; i++) {
+            seen += cell.amountBuckets.get(i);
+            if (seen >= rank) {
+                return i == 0 ? 0 : (long) Math.pow(2, (double) i / SUB_BUCKETS);
+            }
+        }
+        return (long) Math.pow(2, (double) (AMOUNT_BUCKETS - 1) / SUB_BUCKETS);
+    }
+}
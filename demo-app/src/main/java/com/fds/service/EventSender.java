@@ -1,30 +1,310 @@
 package com.fds.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fds.dto.FdsEvent;
-import jakarta.servlet.http.HttpServletResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// n8n webhook 전송
+// 이벤트를 위험 가능성에 따라 HIGH/NORMAL/LOW lane(각각 bounded queue)에 넣고, 전송 스레드 하나가
+// 가중치(smooth weighted round-robin)로 꺼내 보냄. 동시 전송 수를 max-in-flight로 제한하므로
+// n8n이 밀리면 큐에 쌓이고, 차단 가능성이 높은 이벤트가 먼저 전송됨
+// lane이 가득 차면 버림 (HIGH만 high-full-wait까지 자리가 나길 기다린 뒤 버림)
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class EventSender {
 
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+
+    private enum Lane { HIGH, NORMAL, LOW }
+
+    private record PendingEvent(String eventId, byte[] body, String traceparent, long enqueuedNanos) {}
+
     private final WebClient webClient;
+    private final ShadowEvaluator shadowEvaluator;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final EventTracing eventTracing;
+    private final GoogleSheetsService googleSheetsService;
+
+    // json: n8n webhook 기본 형식 / cbor: 바이너리를 받을 수 있는 수신 측에서 전송 크기 절감
+    @Value("${fds.events.encoding:json}")
+    private String encoding;
+
+    @Value("${fds.events.dispatch.max-in-flight:32}")
+    private int maxInFlight;
+
+    // WebClient에는 응답 타임아웃이 없으므로 전송마다 적용 (응답 없는 n8n이 in-flight 슬롯을 계속 잡지 않도록)
+    @Value("${fds.events.dispatch.timeout:10s}")
+    private Duration timeout;
+
+    @Value("${fds.events.dispatch.capacity.high:10000}")
+    private int highCapacity;
+
+    @Value("${fds.events.dispatch.capacity.normal:10000}")
+    private int normalCapacity;
+
+    @Value("${fds.events.dispatch.capacity.low:5000}")
+    private int lowCapacity;
+
+    // HIGH lane이 가득 찼을 때 요청 스레드가 자리가 나길 기다리는 최대 시간 (이후에는 버림)
+    @Value("${fds.events.dispatch.high-full-wait:200ms}")
+    private Duration highFullWait;
+
+    @Value("${fds.events.dispatch.weight.high:8}")
+    private int highWeight;
+
+    @Value("${fds.events.dispatch.weight.normal:3}")
+    private int normalWeight;
+
+    @Value("${fds.events.dispatch.weight.low:1}")
+    private int lowWeight;
+
+    // 송금액이 당일 평균의 이 배수 이상이면 HIGH
+    @Value("${fds.events.dispatch.high-amount-ratio:3.0}")
+    private double highAmountRatio;
+
+    // 평균이 없을 때(첫 송금) HIGH로 보는 금액
+    @Value("${fds.events.dispatch.high-amount:1000000}")
+    private long highAmount;
+
+    // 마지막으로 조회된 score가 이 값 이상이면 HIGH (기본: MEDIUM 임계값)
+    @Value("${fds.rules.medium-threshold:40}")
+    private int highRiskScore;
+
+    private ObjectWriter eventWriter;
+    private MediaType contentType;
+    private DistributionSummary eventBytes;
+
+    private final BlockingQueue<PendingEvent>[] lanes = newLaneArray();
+    private final int[] weights = new int[Lane.values().length];
+    private final int[] currentWeights = new int[Lane.values().length];
+    private final Timer[] queueWait = new Timer[Lane.values().length];
+
+    // queued: 모든 lane에 대기 중인 이벤트 수, inFlight: 남은 동시 전송 슬롯
+    private final Semaphore queued = new Semaphore(0);
+    private Semaphore inFlight;
+    private Thread dispatcher;
+
+    @SuppressWarnings("unchecked")
+    private static BlockingQueue<PendingEvent>[] newLaneArray() {
+        return new BlockingQueue[Lane.values().length];
+    }
+
+    @PostConstruct
+    void init() {
+        boolean cbor = "cbor".equalsIgnoreCase(encoding);
+        eventWriter = cbor ? new CBORMapper().writerFor(FdsEvent.class) : objectMapper.writerFor(FdsEvent.class);
+        contentType = cbor ? APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+
+        eventBytes = DistributionSummary.builder("fds.events.bytes")
+                .baseUnit("bytes")
+                .tag("encoding", cbor ? "cbor" : "json")
+                .register(meterRegistry);
+
+        int[] capacities = {highCapacity, normalCapacity, lowCapacity};
+        int[] configuredWeights = {highWeight, normalWeight, lowWeight};
+        for (Lane lane : Lane.values()) {
+            int i = lane.ordinal();
+            lanes[i] = new ArrayBlockingQueue<>(capacities[i]);
+            weights[i] = Math.max(1, configuredWeights[i]);
+
+            String tag = lane.name().toLowerCase();
+            Gauge.builder("fds.events.queue.depth", lanes[i], BlockingQueue::size)
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            queueWait[i] = Timer.builder("fds.events.queue.wait")
+                    .tag("lane", tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        inFlight = new Semaphore(maxInFlight);
+        dispatcher = new Thread(this::dispatchLoop, "event-dispatch");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        dispatcher.interrupt();
+    }
 
     public void send(FdsEvent event) {
+        // 후보 룰셋 shadow 평가 (별도 스레드, 판단에 영향 없음)
+        shadowEvaluator.submit(event);
+
+        // 미리 만든 writer로 직접 직렬화해 요청마다 타입 조회/인코더 선택을 반복하지 않음
+        byte[] body;
+        try {
+            body = eventWriter.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to encode FDS event {}", event.eventId(), e);
+            return;
+        }
+        eventBytes.record(body.length);
+
+        // n8n이 콜백에 event_id/traceparent를 그대로 돌려주면 UserController에서 같은 trace로 연결
+        PendingEvent pending = new PendingEvent(event.eventId(), body,
+                EventTracing.traceparent(event.eventId()), System.nanoTime());
+
+        Lane lane = classify(event);
+        if (enqueue(lane, pending)) {
+            queued.release();
+            return;
+        }
+
+        meterRegistry.counter("fds.events.dropped", "lane", lane.name().toLowerCase()).increment();
+        log.warn("{} lane full, dropping event {}", lane, event.eventId());
+    }
+
+    // HIGH는 high-full-wait 동안 lane에 자리가 나길 기다림 (큐를 우회해 보내면 max-in-flight를 넘게 되므로)
+    // 나머지 lane은 가득 차 있으면 바로 버림
+    private boolean enqueue(Lane lane, PendingEvent pending) {
+        BlockingQueue<PendingEvent> queue = lanes[lane.ordinal()];
+        if (queue.offer(pending)) {
+            return true;
+        }
+        if (lane != Lane.HIGH) {
+            return false;
+        }
+
+        try {
+            return queue.offer(pending, highFullWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // 이벤트 유형 + 당일 평균 대비 금액 + 마지막으로 알려진 위험 점수 + 접속 IP 평판으로 lane 결정
+    private Lane classify(FdsEvent event) {
+        if ("LOGOUT".equals(event.eventType())) {
+            return Lane.LOW;
+        }
+
+        if (event.ipFlags() != null && (event.ipFlags().contains("TOR") || event.ipFlags().contains("PROXY"))) {
+            return Lane.HIGH;
+        }
+
+        if (event.amount() != null) {
+            double threshold = event.avgAmount() > 0 ? event.avgAmount() * highAmountRatio : highAmount;
+            if (event.amount() >= threshold) {
+                return Lane.HIGH;
+            }
+        }
+
+        if (event.userId() != null && googleSheetsService.getLastKnownScore(event.userId()) >= highRiskScore) {
+            return Lane.HIGH;
+        }
+        return Lane.NORMAL;
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                queued.acquire();
+                inFlight.acquire();
+
+                // post는 예외를 밖으로 던지지 않으므로, 여기서 잡히는 예외는 post 전에 난 것 (permit을 직접 반환)
+                try {
+                    PendingEvent pending = null;
+                    int lane = -1;
+                    while (pending == null) {
+                        lane = nextLane();
+                        pending = lanes[lane].poll();
+                    }
+
+                    queueWait[lane].record(System.nanoTime() - pending.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                    post(pending, inFlight);
+                } catch (RuntimeException e) {
+                    log.error("Failed to dispatch FDS event", e);
+                    inFlight.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // smooth weighted round-robin: 비어 있지 않은 lane 중 누적 가중치가 가장 큰 lane 선택
+    private int nextLane() {
+        int total = 0;
+        int selected = -1;
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i].isEmpty()) {
+                continue;
+            }
+            currentWeights[i] += weights[i];
+            total += weights[i];
+            if (selected < 0 || currentWeights[i] > currentWeights[selected]) {
+                selected = i;
+            }
+        }
+
+        if (selected < 0) {
+            // queued 허가는 받았지만 offer 직후라 아직 보이지 않는 경우
+            Thread.onSpinWait();
+            return 0;
+        }
+        currentWeights[selected] -= total;
+        return selected;
+    }
+
+    // 요청 조립/구독 중 동기 예외가 나도 permit을 돌려주고 dispatch 스레드로 예외를 올리지 않음
+    private void post(PendingEvent pending, Semaphore permit) {
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permit.release();
+            }
+        };
 
-        webClient.post()
-                .uri("webhook/dd866d46-8a0b-4dfc-b853-55d3179511fd")
-                .contentType(MediaType.APPLICATION_JSON)
-                .bodyValue(event)
-                .retrieve()
-                .bodyToMono(String.class)
-                .doOnSuccess(res -> log.info("n8n webhook success"))
-                .doOnError(err -> log.error("n8n webhook error", err))
-                .subscribe(); // 비동기 전송
+        try {
+            webClient.post()
+                    .uri("webhook/dd866d46-8a0b-4dfc-b853-55d3179511fd")
+                    .contentType(contentType)
+                    .headers(headers -> {
+                        if (pending.traceparent() != null) {
+                            headers.set(EventTracing.TRACEPARENT_HEADER, pending.traceparent());
+                        }
+                    })
+                    .bodyValue(pending.body())
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(timeout)
+                    .doOnSuccess(res -> log.info("n8n webhook success"))
+                    .doOnError(err -> log.error("n8n webhook error", err))
+                    .doFinally(signal -> {
+                        eventTracing.recordStage("webhook_send", start);
+                        release.run();
+                    })
+                    .subscribe(res -> { }, err -> { }); // 비동기 전송 (오류는 doOnError에서 기록)
+        } catch (RuntimeException e) {
+            log.error("n8n webhook dispatch failed for event {}", pending.eventId(), e);
+            release.run();
+        }
     }
 }
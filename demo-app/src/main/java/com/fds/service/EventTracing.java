@@ -0,0 +1,89 @@
+package com.fds.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// app -> n8n -> /user/update-risk 콜백 구간을 event_id로 연결
+// event_id(UUIDv7) 128bit를 그대로 W3C traceparent의 trace-id로 사용하고, 앞 48bit의 생성 시각으로
+// 콜백 시점의 event-to-decision 지연을 계산하므로 이벤트별 상태를 보관하지 않음
+@Component
+@RequiredArgsConstructor
+public class EventTracing {
+
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> decisionTimers = new ConcurrentHashMap<>();
+
+    // 내부 처리 단계별 지연 (sheets_read, redis_incr, log_scan, webhook_send)
+    public Timer stage(String stage) {
+        return stageTimers.computeIfAbsent(stage, s -> Timer.builder("fds.stage.latency")
+                .tag("stage", s)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    public void recordStage(String stage, long startNanos) {
+        stage(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 콜백 수신 시 event_id 생성 시각부터의 지연을 기록 (UUIDv7이 아니면 -1)
+    public long recordDecision(String eventId, String riskLevel) {
+        long createdMillis = createdMillis(eventId);
+        if (createdMillis < 0) {
+            return -1;
+        }
+
+        long latencyMillis = Math.max(0, System.currentTimeMillis() - createdMillis);
+        decisionTimers.computeIfAbsent(riskLevel, level -> Timer.builder("fds.event.decision.latency")
+                        .description("FDS event creation to n8n risk callback")
+                        .tag("risk_level", level)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(latencyMillis, TimeUnit.MILLISECONDS);
+        return latencyMillis;
+    }
+
+    // 00-{trace-id}-{parent-id}-01
+    public static String traceparent(String eventId) {
+        String traceId = eventId.replace("-", "");
+        if (traceId.length() != 32) {
+            return null;
+        }
+        // 최상위 bit를 켜서 항상 16자리 hex (0이 아닌 parent-id)
+        long spanId = ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE;
+        return "00-" + traceId + "-" + Long.toHexString(spanId) + "-01";
+    }
+
+    // traceparent만 전달된 콜백에서 event_id 복원
+    public static String eventIdFromTraceparent(String traceparent) {
+        if (traceparent == null || traceparent.length() < 35 || !traceparent.startsWith("00-")) {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        return traceId.substring(0, 8) + "-" + traceId.substring(8, 12) + "-" + traceId.substring(12, 16)
+                + "-" + traceId.substring(16, 20) + "-" + traceId.substring(20);
+    }
+
+    private static long createdMillis(String eventId) {
+        if (eventId == null || eventId.isBlank()) {
+            return -1;
+        }
+        try {
+            UUID uuid = UUID.fromString(eventId);
+            return uuid.version() == 7 ? uuid.getMostSignificantBits() >>> 16 : -1;
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
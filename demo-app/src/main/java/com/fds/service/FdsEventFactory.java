@@ -0,0 +1,98 @@
+package com.fds.service;
+
+import com.fds.dto.FdsEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// FdsEvent 생성을 한 곳으로 모음
+// - event_id: UUIDv7 형식 (앞 48bit가 밀리초 시각이라 시간순 정렬, 난수는 ThreadLocalRandom이라 SecureRandom 경합 없음)
+// - ts: 초 단위로 캐시한 "yyyy-MM-ddTHH:mm:ss" + 밀리초 + offset 문자열 (ISO-8601 offset 형식 유지)
+// - ip_flags/ip_country: IpIntelligence 조회 결과
+// - recipient_fan_in/recipient_sender_tx_count: RecipientGraph 기록 결과 (송금만)
+@Component
+@RequiredArgsConstructor
+public class FdsEventFactory {
+
+    private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final IpIntelligence ipIntelligence;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private volatile CachedSecond cachedSecond = new CachedSecond(Long.MIN_VALUE, "", "", 0);
+
+    public FdsEvent create(long epochMillis, String eventType, String userId, String result, String srcIp,
+                           String country, Long amount, String toBank, String toAccountId, double avgAmount,
+                           RecipientGraph.Activity recipient) {
+        CachedSecond second = second(epochMillis);
+        IpIntelligence.IpInfo ipInfo = ipIntelligence.lookup(srcIp);
+        return new FdsEvent(
+                second.format(epochMillis),
+                eventType,
+                newEventId(epochMillis),
+                userId,
+                result,
+                srcIp,
+                country,
+                second.hour,
+                amount,
+                toBank,
+                toAccountId,
+                avgAmount,
+                ipInfo.flags(),
+                ipInfo.country(),
+                recipient != null ? recipient.fanIn() : null,
+                recipient != null ? recipient.senderTransfers() : null
+        );
+    }
+
+    public FdsEvent create(ZonedDateTime now, String eventType, String userId, String result, String srcIp,
+                           String country, Long amount, String toBank, String toAccountId, double avgAmount,
+                           RecipientGraph.Activity recipient) {
+        return create(now.toInstant().toEpochMilli(), eventType, userId, result, srcIp, country,
+                amount, toBank, toAccountId, avgAmount, recipient);
+    }
+
+    // RFC 9562 UUIDv7: unix_ts_ms(48) | ver(4) | rand_a(12) | var(2) | rand_b(62)
+    public String newEventId(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (epochMillis << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    private CachedSecond second(long epochMillis) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        CachedSecond second = cachedSecond;
+        if (second.epochSecond != epochSecond) {
+            ZonedDateTime time = Instant.ofEpochSecond(epochSecond).atZone(zone);
+            second = new CachedSecond(epochSecond, time.format(SECOND_FORMATTER),
+                    time.getOffset().getId(), time.getHour());
+            cachedSecond = second;
+        }
+        return second;
+    }
+
+    private record CachedSecond(long epochSecond, String prefix, String offset, int hour) {
+
+        String format(long epochMillis) {
+            int millis = (int) Math.floorMod(epochMillis, 1000L);
+            StringBuilder sb = new StringBuilder(prefix.length() + 4 + offset.length());
+            sb.append(prefix).append('.');
+            if (millis < 100) {
+                sb.append('0');
+            }
+            if (millis < 10) {
+                sb.append('0');
+            }
+            return sb.append(millis).append(offset).toString();
+        }
+    }
+}
@@ -1,21 +1,60 @@
 package com.fds.service;
 
+import com.fds.dto.RiskUpdateRequest;
+import com.fds.dto.Rule;
+import com.fds.dto.UserRiskState;
 import com.google.api.services.sheets.v4.Sheets;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
 import com.google.api.services.sheets.v4.model.ValueRange;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class GoogleSheetsService {
 
-    private final Sheets sheetsService;
+    private static final int LATENCY_SAMPLES = 256;
+
+    // Sheets 클라이언트(HTTP transport, 인증 정보)는 첫 조회 시점에 생성
+    private final ObjectProvider<Sheets> sheetsProvider;
+    private final SheetsCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final EventTracing eventTracing;
 
     @Value("${google.sheets.spreadsheet-id}")
     private String spreadsheetId;
@@ -23,14 +62,74 @@ public class GoogleSheetsService {
     @Value("${google.sheets.user-risk-range}")
     private String userRiskRange;
 
+    @Value("${google.sheets.rule-set-range}")
+    private String ruleSetRange;
+
+    @Value("${fds.sheets.read-timeout:2s}")
+    private Duration readTimeout;
+
+    @Value("${fds.sheets.write-timeout:3s}")
+    private Duration writeTimeout;
+
+    @Value("${fds.sheets.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${fds.sheets.hedge.min-delay:50ms}")
+    private Duration hedgeMinDelay;
+
+    // 같은 사용자에 대한 blockUser 중복 호출을 막는 기간 (Sheets 쓰기 quota 절약)
+    @Value("${fds.sheets.block-dedupe-ttl:5m}")
+    private Duration blockDedupeTtl;
+
+    private ThreadPoolExecutor sheetsExecutor;
+
+    // 마지막으로 성공한 User_Risk_Status 조회 결과 (breaker OPEN/타임아웃 시 fallback)
+    private volatile List<List<Object>> lastKnownRows;
+
+    // lastKnownRows의 user_id -> score (이벤트마다 호출되는 getLastKnownScore가 행을 선형 탐색하지 않도록 조회 시 함께 만듦)
+    private volatile Map<String, Integer> lastKnownScores = Map.of();
+
+    // 최근에 차단을 쓴 사용자 -> 차단 시각 (같은 차단을 다시 쓰지 않기 위한 dedupe 용도로만 사용, 조회에는 사용하지 않음)
+    private final Map<String, Long> recentlyBlocked = new ConcurrentHashMap<>();
+
+    // breaker OPEN/장애로 아직 Sheets에 쓰지 못한 차단 (재시도 전까지 차단으로 취급)
+    private final Set<String> pendingBlocks = ConcurrentHashMap.newKeySet();
+
+    // 최근 조회 지연 샘플로 p95를 계산해 hedge 지연으로 사용 (정렬은 스케줄러 스레드에서)
+    private final AtomicLongArray latencySamples = new AtomicLongArray(LATENCY_SAMPLES);
+    private final AtomicLong latencyCount = new AtomicLong();
+    private volatile long hedgeDelayMillis;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        sheetsExecutor = new ThreadPoolExecutor(
+                4, 16, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sheets-io-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        hedgeDelayMillis = Math.max(hedgeMinDelay.toMillis(), readTimeout.toMillis() / 2);
+
+        Gauge.builder("fds.sheets.hedge.delay", this, s -> s.hedgeDelayMillis)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("fds.sheets.block.pending", pendingBlocks, Set::size)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sheetsExecutor.shutdownNow();
+    }
+
     //Google Sheets에서 특정 사용자의 Current_Total_Score 조회
     public Integer getCurrentTotalScore(String userId) {
         try {
-            ValueRange response = sheetsService.spreadsheets().values()
-                    .get(spreadsheetId, userRiskRange)
-                    .execute();
-
-            List<List<Object>> values = response.getValues();
+            List<List<Object>> values = readUserRiskRows("getCurrentTotalScore");
             if (values == null || values.isEmpty()) {
                 log.warn("No data found in Google Sheets");
                 return 0;
@@ -46,10 +145,7 @@ public class GoogleSheetsService {
 
                     if (userId.equals(sheetUserId)) {
                         try {
-                            Object scoreObj = row.get(1);
-                            int score = scoreObj instanceof Number
-                                    ? ((Number) scoreObj).intValue()
-                                    : Integer.parseInt(scoreObj.toString());
+                            int score = parseScore(row.get(1));
 
                             log.info("Found score for user {}: {}", userId, score);
                             return score;
@@ -73,12 +169,12 @@ public class GoogleSheetsService {
     //사용자의 blocked 상태 조회 E열(index 4)에 blocked 값이 있음
 
     public boolean isUserBlocked(String userId) {
-        try {
-            ValueRange response = sheetsService.spreadsheets().values()
-                    .get(spreadsheetId, userRiskRange)
-                    .execute();
+        if (isBlockPending(userId)) {
+            return true;
+        }
 
-            List<List<Object>> values = response.getValues();
+        try {
+            List<List<Object>> values = readUserRiskRows("isUserBlocked");
             if (values == null || values.isEmpty()) {
                 log.warn("No data found in Google Sheets for blocked check");
                 return false;
@@ -108,14 +204,111 @@ public class GoogleSheetsService {
         }
     }
 
+    //마지막으로 조회된 시트 상태에서 score를 찾음 (원격 호출 없음, 없으면 0)
+    public int getLastKnownScore(String userId) {
+        return lastKnownScores.getOrDefault(userId, 0);
+    }
+
+    // 같은 user_id가 여러 행이면 getRiskStates와 같이 마지막 행 기준, 형식이 잘못된 score는 0
+    private static Map<String, Integer> scoresOf(List<List<Object>> values) {
+        Map<String, Integer> scores = new HashMap<>(Math.max(16, values.size() * 4 / 3));
+        for (int i = 1; i < values.size(); i++) {
+            List<Object> row = values.get(i);
+            if (row.size() < 2) {
+                continue;
+            }
+            int score;
+            try {
+                score = parseScore(row.get(1));
+            } catch (NumberFormatException e) {
+                score = 0;
+            }
+            scores.put(row.get(0).toString(), score);
+        }
+        return scores;
+    }
+
+    //Current_Total_Score(B열) 값 파싱 (숫자 셀은 Number, 문자열 셀은 String으로 내려옴)
+    private static int parseScore(Object scoreObj) {
+        return scoreObj instanceof Number
+                ? ((Number) scoreObj).intValue()
+                : Integer.parseInt(scoreObj.toString());
+    }
+
+    //score(B열)와 blocked(E열)를 한 번의 조회로 함께 가져옴
+    public UserRiskState getRiskState(String userId) {
+        return getRiskStates(List.of(userId)).get(userId);
+    }
+
+    //여러 사용자의 score/blocked 상태를 한 번의 조회로 가져옴 (없거나 조회 실패 시 UNKNOWN)
+    public Map<String, UserRiskState> getRiskStates(Collection<String> userIds) {
+        Map<String, UserRiskState> states = new HashMap<>();
+        for (String userId : userIds) {
+            states.put(userId, UserRiskState.UNKNOWN);
+        }
+
+        try {
+            List<List<Object>> values = readUserRiskRows("getRiskStates");
+            if (values == null || values.isEmpty()) {
+                log.warn("No data found in Google Sheets");
+                return states;
+            }
+
+            for (int i = 1; i < values.size(); i++) {
+                List<Object> row = values.get(i);
+                if (row.size() < 2 || !states.containsKey(row.get(0).toString())) {
+                    continue;
+                }
+
+                String sheetUserId = row.get(0).toString();
+                int score;
+                try {
+                    score = parseScore(row.get(1));
+                } catch (NumberFormatException e) {
+                    log.error("Invalid score format for user {}: {}", sheetUserId, row.get(1));
+                    score = 0;
+                }
+
+                boolean blocked = row.size() > 4
+                        && "TRUE".equals(row.get(4).toString().trim().toUpperCase());
+                states.put(sheetUserId, new UserRiskState(score, blocked));
+            }
+        } catch (Exception e) {
+            log.error("Failed to get risk states for {} users", userIds.size(), e);
+        }
+
+        for (Map.Entry<String, UserRiskState> entry : states.entrySet()) {
+            if (!entry.getValue().blocked() && isBlockPending(entry.getKey())) {
+                entry.setValue(new UserRiskState(entry.getValue().score(), true));
+            }
+        }
+        return states;
+    }
+
     //사용자를 차단 상태로 변경 E열에 blocked 값을 TRUE로 설정
+    // dedupe 기간 안에 이미 차단한 사용자는 Sheets를 다시 호출하지 않음
+    // breaker OPEN/장애로 쓰지 못한 차단은 pendingBlocks에 넣고 retryPendingBlocks에서 재시도
     public void blockUser(String userId) {
-        try {
-            ValueRange response = sheetsService.spreadsheets().values()
-                    .get(spreadsheetId, userRiskRange)
-                    .execute();
+        long now = System.currentTimeMillis();
+        boolean[] claimed = {false};
+        recentlyBlocked.compute(userId, (key, blockedAt) -> {
+            if (blockedAt != null && now - blockedAt < blockDedupeTtl.toMillis()) {
+                return blockedAt;
+            }
+            claimed[0] = true;
+            return now;
+        });
 
-            List<List<Object>> values = response.getValues();
+        if (!claimed[0]) {
+            meterRegistry.counter("fds.sheets.block.deduped").increment();
+            log.info("User {} already blocked recently, skipping Google Sheets update", userId);
+            return;
+        }
+
+        boolean blocked = false;
+        boolean retry = false;
+        try {
+            List<List<Object>> values = readUserRiskRows("blockUser");
             if (values == null || values.isEmpty()) {
                 log.warn("No data found in Google Sheets");
                 return;
@@ -133,19 +326,387 @@ public class GoogleSheetsService {
                     ValueRange body = new ValueRange()
                             .setValues(List.of(List.of("TRUE")));
 
-                    sheetsService.spreadsheets().values()
+                    if (!circuitBreaker.allowRequest()) {
+                        recordFallback("blockUser", "BREAKER_OPEN");
+                        log.warn("User {} block queued: Google Sheets circuit breaker is open", userId);
+                        retry = true;
+                        return;
+                    }
+
+                    callWithDeadline(() -> sheets().spreadsheets().values()
                             .update(spreadsheetId, updateRange, body)
                             .setValueInputOption("RAW")
-                            .execute();
+                            .execute(), writeTimeout);
+                    circuitBreaker.onSuccess();
 
                     log.info("User {} blocked in Google Sheets at row {} (E column)", userId, rowNumber);
+                    blocked = true;
                     return;
                 }
             }
 
             log.warn("User {} not found in Google Sheets for blocking", userId);
         } catch (Exception e) {
-            log.error("Failed to block user: {}", userId, e);
+            log.error("Failed to block user, queued for retry: {}", userId, e);
+            retry = true;
+        } finally {
+            if (!blocked) {
+                recentlyBlocked.remove(userId, now);
+            }
+            if (!retry) {
+                pendingBlocks.remove(userId);
+            } else if (pendingBlocks.add(userId)) {
+                log.warn("SHEETS_BLOCK_QUEUED userId={} pending={}", userId, pendingBlocks.size());
+            }
+        }
+    }
+
+    // 쓰지 못한 차단을 재시도 (breaker OPEN 중에는 원격 호출 없이 다시 대기열에 남음)
+    // dedupe 기간이 지난 recentlyBlocked 항목도 함께 정리
+    @Scheduled(fixedDelayString = "${fds.sheets.block-retry-interval:10000}")
+    public void retryPendingBlocks() {
+        long now = System.currentTimeMillis();
+        recentlyBlocked.entrySet().removeIf(entry -> now - entry.getValue() >= blockDedupeTtl.toMillis());
+
+        for (String userId : List.copyOf(pendingBlocks)) {
+            blockUser(userId);
+            if (!pendingBlocks.contains(userId)) {
+                log.info("SHEETS_BLOCK_RETRIED userId={}", userId);
+            }
         }
     }
+
+    // 차단을 결정했지만 아직 Sheets에 쓰지 못한 사용자 (시트 조회 결과보다 우선해 차단으로 취급)
+    public boolean isBlockPending(String userId) {
+        return pendingBlocks.contains(userId);
+    }
+
+    // sinceMillis 이후에 이 인스턴스가 차단을 결정한 사용자 (쓰는 중이거나 이미 쓴 차단 포함)
+    // 그보다 먼저 읽은 시트 스냅샷에는 반영되지 않았을 수 있는 차단을 찾는 용도
+    public boolean isBlockedSince(String userId, long sinceMillis) {
+        Long blockedAt = recentlyBlocked.get(userId);
+        return (blockedAt != null && blockedAt >= sinceMillis) || pendingBlocks.contains(userId);
+    }
+
+    //Rule_Set 시트 조회 (헤더 행의 컬럼명으로 매핑)
+    //조회 실패는 빈 룰셋과 구분되도록 IOException으로 알림 (호출하는 쪽에서 이전 룰셋 유지/요청 실패 처리)
+    public List<Rule> getRules() throws IOException {
+        if (!circuitBreaker.allowRequest()) {
+            recordFallback("getRules", "BREAKER_OPEN");
+            throw new IOException("Google Sheets circuit breaker is open");
+        }
+
+        ValueRange response = callWithDeadline(() -> sheets().spreadsheets().values()
+                .get(spreadsheetId, ruleSetRange)
+                .execute(), readTimeout);
+        circuitBreaker.onSuccess();
+
+        List<List<Object>> values = response.getValues();
+        if (values == null || values.isEmpty()) {
+            log.warn("No rules found in Google Sheets");
+            return List.of();
+        }
+
+        List<Object> header = values.get(0);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).toString().trim(), i);
+        }
+
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 1; i < values.size(); i++) {
+            List<Object> row = values.get(i);
+            try {
+                rules.add(new Rule(
+                        column(row, columns, "Category"),
+                        column(row, columns, "Rule_Name"),
+                        column(row, columns, "Target_Field"),
+                        column(row, columns, "Operator"),
+                        column(row, columns, "Threshold"),
+                        Integer.parseInt(column(row, columns, "Score").trim()),
+                        "TRUE".equalsIgnoreCase(column(row, columns, "Is_Active").trim())
+                ));
+            } catch (RuntimeException e) {
+                log.warn("Skipping invalid rule row {}: {}", i + 1, row);
+            }
+        }
+
+        log.info("Loaded {} rules from Google Sheets", rules.size());
+        return rules;
+    }
+
+    private String column(List<Object> row, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < row.size() ? row.get(index).toString() : "";
+    }
+
+    //여러 사용자의 위험도 결과 중 HIGH를 한 번의 조회와 한 번의 batchUpdate로 반영
+    //단건 /update-risk와 같이 HIGH일 때 E열(blocked)만 TRUE로 설정 (LOW/MEDIUM은 시트에 쓰지 않으므로 조회도 하지 않음)
+    //B(score), C(Last_Update_Time), D(triggered_rules)는 n8n이 누적 관리하므로 쓰지 않음
+    //차단을 반영했거나 breaker OPEN/장애로 pendingBlocks에 넣은 user_id 집합을 반환 (시트에 없는 사용자는 제외)
+    public Set<String> applyRiskUpdates(List<RiskUpdateRequest> updates) {
+        Set<String> highUsers = new LinkedHashSet<>();
+        for (RiskUpdateRequest update : updates) {
+            if ("HIGH".equalsIgnoreCase(update.riskLevel())) {
+                highUsers.add(update.userId());
+            }
+        }
+
+        Set<String> handled = new HashSet<>();
+        if (highUsers.isEmpty()) {
+            return handled;
+        }
+
+        // 조회 전에 실패하면 시트에 있는지 알 수 없으므로 blockUser와 같이 모두 재시도 대상
+        Set<String> unapplied = highUsers;
+        try {
+            List<List<Object>> values = readUserRiskRows("applyRiskUpdates");
+            if (values == null || values.isEmpty()) {
+                log.warn("No data found in Google Sheets");
+                return handled;
+            }
+
+            // user_id -> 1-based 행 번호
+            Map<String, Integer> rowNumbers = new HashMap<>();
+            for (int i = 1; i < values.size(); i++) {
+                List<Object> row = values.get(i);
+                if (row.size() > 0) {
+                    rowNumbers.putIfAbsent(row.get(0).toString(), i + 1);
+                }
+            }
+
+            String sheetName = userRiskRange.split("!")[0];
+            List<ValueRange> data = new ArrayList<>();
+            Set<String> matched = new LinkedHashSet<>();
+
+            for (String userId : highUsers) {
+                Integer rowNumber = rowNumbers.get(userId);
+                if (rowNumber == null) {
+                    log.warn("User {} not found in Google Sheets for blocking", userId);
+                    continue;
+                }
+                matched.add(userId);
+                data.add(cell(sheetName + "!E" + rowNumber, "TRUE"));
+            }
+
+            unapplied = matched;
+            if (matched.isEmpty()) {
+                return handled;
+            }
+
+            if (!circuitBreaker.allowRequest()) {
+                recordFallback("applyRiskUpdates", "BREAKER_OPEN");
+                log.warn("Blocks for {} users queued: Google Sheets circuit breaker is open", matched.size());
+                queueBlocks(matched, handled);
+                return handled;
+            }
+
+            BatchUpdateValuesRequest body = new BatchUpdateValuesRequest()
+                    .setValueInputOption("RAW")
+                    .setData(data);
+
+            callWithDeadline(() -> sheets().spreadsheets().values()
+                    .batchUpdate(spreadsheetId, body)
+                    .execute(), writeTimeout);
+            circuitBreaker.onSuccess();
+
+            log.info("Applied {} blocks to Google Sheets in one batch", matched.size());
+
+            long now = System.currentTimeMillis();
+            for (String userId : matched) {
+                recentlyBlocked.put(userId, now);
+                pendingBlocks.remove(userId);
+            }
+            handled.addAll(matched);
+            return handled;
+        } catch (Exception e) {
+            log.error("Failed to apply risk updates, {} blocks queued for retry", unapplied.size(), e);
+            queueBlocks(unapplied, handled);
+            return handled;
+        }
+    }
+
+    // blockUser와 같이 쓰지 못한 차단을 retryPendingBlocks 대기열에 넣음 (대기 중에도 차단으로 취급)
+    private void queueBlocks(Collection<String> userIds, Set<String> handled) {
+        for (String userId : userIds) {
+            if (pendingBlocks.add(userId)) {
+                log.warn("SHEETS_BLOCK_QUEUED userId={} pending={}", userId, pendingBlocks.size());
+            }
+            handled.add(userId);
+        }
+    }
+
+    private Sheets sheets() {
+        return sheetsProvider.getObject();
+    }
+
+    private ValueRange cell(String range, Object value) {
+        return new ValueRange()
+                .setRange(range)
+                .setValues(List.of(List.of(value)));
+    }
+
+    // User_Risk_Status 전체 조회 (deadline + circuit breaker + hedged read)
+    private List<List<Object>> readUserRiskRows(String operation) throws IOException {
+        if (!circuitBreaker.allowRequest()) {
+            return fallbackRows(operation, "BREAKER_OPEN");
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<List<Object>> values = hedgedRead();
+            recordLatency(System.nanoTime() - start);
+            circuitBreaker.onSuccess();
+
+            if (values != null) {
+                lastKnownScores = scoresOf(values);
+                lastKnownRows = values;
+            }
+            return values;
+        } catch (TimeoutException e) {
+            circuitBreaker.onFailure();
+            log.warn("Google Sheets read timed out after {} (operation={})", readTimeout, operation);
+            return fallbackRows(operation, "TIMEOUT");
+        } catch (RejectedExecutionException e) {
+            // 로컬 executor 포화는 Sheets 장애가 아니므로 실패로 세지 않음 (HALF_OPEN 프로브였다면 반납)
+            circuitBreaker.onAbandoned();
+            log.warn("Google Sheets read rejected by saturated executor (operation={})", operation);
+            return fallbackRows(operation, "REJECTED");
+        } catch (ExecutionException | RuntimeException e) {
+            circuitBreaker.onFailure();
+            log.error("Google Sheets read failed (operation={})", operation, e);
+            return fallbackRows(operation, "ERROR");
+        } catch (InterruptedException e) {
+            // 결과를 모르는 채 끝난 호출도 실패로 기록해 HALF_OPEN에 머무르지 않게 함
+            circuitBreaker.onFailure();
+            Thread.currentThread().interrupt();
+            return fallbackRows(operation, "INTERRUPTED");
+        } finally {
+            eventTracing.recordStage("sheets_read", start);
+        }
+    }
+
+    private List<List<Object>> fallbackRows(String operation, String reason) throws IOException {
+        recordFallback(operation, reason);
+
+        List<List<Object>> rows = lastKnownRows;
+        if (rows == null) {
+            throw new IOException("Google Sheets unavailable (" + reason + ") and no last-known state");
+        }
+        log.warn("Using last-known Google Sheets state (operation={}, reason={})", operation, reason);
+        return rows;
+    }
+
+    private void recordFallback(String operation, String reason) {
+        meterRegistry.counter("fds.sheets.fallback", "operation", operation, "reason", reason).increment();
+    }
+
+    // hedge 지연(p95)까지 응답이 없으면 같은 조회를 한 번 더 보내고 먼저 성공한 응답을 사용
+    private List<List<Object>> hedgedRead() throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + readTimeout.toNanos();
+        CompletableFuture<List<List<Object>>> primary = CompletableFuture.supplyAsync(this::executeRead, sheetsExecutor);
+
+        if (!hedgeEnabled || hedgeDelayMillis >= readTimeout.toMillis()) {
+            return primary.get(readTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        try {
+            return primary.get(hedgeDelayMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            CompletableFuture<List<List<Object>>> hedge;
+            try {
+                hedge = CompletableFuture.supplyAsync(this::executeRead, sheetsExecutor);
+            } catch (RejectedExecutionException rejected) {
+                // hedge를 보낼 여유가 없으면 원래 요청만 남은 deadline까지 기다림
+                meterRegistry.counter("fds.sheets.hedge", "result", "rejected").increment();
+                return primary.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            meterRegistry.counter("fds.sheets.hedge", "result", "issued").increment();
+
+            CompletableFuture<List<List<Object>>> first = new CompletableFuture<>();
+            AtomicInteger failures = new AtomicInteger();
+
+            primary.whenComplete((rows, err) -> completeFirst(first, rows, err, failures));
+            hedge.whenComplete((rows, err) -> {
+                if (err == null && !primary.isDone()) {
+                    meterRegistry.counter("fds.sheets.hedge", "result", "won").increment();
+                }
+                completeFirst(first, rows, err, failures);
+            });
+
+            return first.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void completeFirst(CompletableFuture<List<List<Object>>> first, List<List<Object>> rows,
+                               Throwable err, AtomicInteger failures) {
+        if (err == null) {
+            first.complete(rows);
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(err);
+        }
+    }
+
+    private List<List<Object>> executeRead() {
+        try {
+            ValueRange response = sheets().spreadsheets().values()
+                    .get(spreadsheetId, userRiskRange)
+                    .execute();
+            return response.getValues();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T callWithDeadline(Callable<T> call, Duration timeout) throws IOException {
+        Future<T> future;
+        try {
+            future = sheetsExecutor.submit(call);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onAbandoned();
+            throw new IOException("Google Sheets call rejected by saturated executor", e);
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 포기한 호출이 sheets-io 스레드/큐 자리를 HTTP 타임아웃까지 잡고 있지 않도록 취소
+            // (아직 큐에 있으면 큐에서 제거, 실행 중이면 interrupt)
+            future.cancel(true);
+            sheetsExecutor.purge();
+            circuitBreaker.onFailure();
+            throw new IOException("Google Sheets call failed within " + timeout, e);
+        } catch (ExecutionException | RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw new IOException("Google Sheets call failed within " + timeout, e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling Google Sheets", e);
+        }
+    }
+
+    // 요청 스레드는 샘플만 기록
+    private void recordLatency(long nanos) {
+        long n = latencyCount.getAndIncrement();
+        latencySamples.set((int) (n % LATENCY_SAMPLES), nanos);
+    }
+
+    @Scheduled(fixedDelayString = "${fds.sheets.hedge.update-interval:5000}")
+    public void updateHedgeDelay() {
+        int size = (int) Math.min(latencyCount.get(), LATENCY_SAMPLES);
+        if (size == 0) {
+            return;
+        }
+
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = latencySamples.get(i);
+        }
+        Arrays.sort(sorted);
+        long p95Millis = TimeUnit.NANOSECONDS.toMillis(sorted[(int) Math.ceil(size * 0.95) - 1]);
+
+        hedgeDelayMillis = Math.min(Math.max(p95Millis, hedgeMinDelay.toMillis()), readTimeout.toMillis());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,364 @@
+package com.fds.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// 일자별 이벤트를 컬럼 단위로 압축 저장하는 파일 형식 (history/fds-YYYY-MM-DD.col)
+// 행은 userId, 시각 순으로 정렬해 블록으로 나누고, 블록마다 컬럼 chunk를 따로 Deflate 압축
+// 파일 끝의 sparse index(블록별 첫/마지막 userId + 컬럼 chunk 위치)로 필요한 블록의 필요한 컬럼만 읽음
+// 파일 형식: [chunk ...][index][index offset:8][magic:4]
+final class HistoryFile {
+
+    static final int COL_USER = 0;
+    static final int COL_TIME = 1;
+    static final int COL_TYPE = 2;
+    static final int COL_AMOUNT = 3;
+    static final int COL_COUNTRY = 4;
+    static final int COL_RISK = 5;
+    static final int COL_SRC_IP = 6;
+    static final int COL_IP_FLAGS = 7;
+    static final int COL_IP_COUNTRY = 8;
+    static final int COLUMNS = 9;
+
+    private static final int MAGIC = 0x46445348; // "FDSH"
+    // 1: ip_flags/ip_country 컬럼 없음 (읽을 때 null)
+    private static final int VERSION = 2;
+    private static final int V1_COLUMNS = 7;
+    private static final int TRAILER_SIZE = 12;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    static final Comparator<Row> ROW_ORDER = Comparator.comparing(Row::userId).thenComparingLong(Row::timeMillis);
+
+    // 읽지 않은 컬럼은 null (시각은 항상 읽음)
+    record Row(String userId, long timeMillis, String eventType, Long amount,
+               String country, String riskLevel, String srcIp, String ipFlags, String ipCountry) {}
+
+    record Block(String firstUser, String lastUser, int rows, long[] offsets, int[] lengths, int[] rawLengths) {}
+
+    record Index(int rowCount, List<Block> blocks) {
+
+        // 블록은 userId 순이므로 lastUser >= userId 인 첫 블록부터 firstUser <= userId 인 동안만 후보
+        List<Block> blocksFor(String userId) {
+            int low = 0;
+            int high = blocks.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (blocks.get(mid).lastUser().compareTo(userId) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            List<Block> candidates = new ArrayList<>(2);
+            for (int i = low; i < blocks.size() && blocks.get(i).firstUser().compareTo(userId) <= 0; i++) {
+                candidates.add(blocks.get(i));
+            }
+            return candidates;
+        }
+    }
+
+    private HistoryFile() {
+    }
+
+    // rows는 ROW_ORDER로 정렬된 순서여야 하며, 메모리에는 한 번에 한 블록만 유지
+    static void write(Path target, Iterator<Row> rows, int blockRows) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        List<Block> blocks = new ArrayList<>();
+        List<Row> blockRowList = new ArrayList<>(blockRows);
+        int rowCount = 0;
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long offset = 0;
+            while (rows.hasNext()) {
+                blockRowList.clear();
+                while (blockRowList.size() < blockRows && rows.hasNext()) {
+                    blockRowList.add(rows.next());
+                }
+
+                int count = blockRowList.size();
+                long[] offsets = new long[COLUMNS];
+                int[] lengths = new int[COLUMNS];
+                int[] rawLengths = new int[COLUMNS];
+
+                for (int column = 0; column < COLUMNS; column++) {
+                    byte[] raw = encodeColumn(blockRowList, 0, count, column);
+                    byte[] compressed = deflate(deflater, raw);
+                    offsets[column] = offset;
+                    lengths[column] = compressed.length;
+                    rawLengths[column] = raw.length;
+                    offset += writeFully(channel, ByteBuffer.wrap(compressed));
+                }
+                blocks.add(new Block(blockRowList.get(0).userId(), blockRowList.get(count - 1).userId(), count,
+                        offsets, lengths, rawLengths));
+                rowCount += count;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(VERSION);
+            out.writeInt(rowCount);
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                out.writeUTF(block.firstUser());
+                out.writeUTF(block.lastUser());
+                out.writeInt(block.rows());
+                for (int column = 0; column < COLUMNS; column++) {
+                    out.writeLong(block.offsets()[column]);
+                    out.writeInt(block.lengths()[column]);
+                    out.writeInt(block.rawLengths()[column]);
+                }
+            }
+            out.flush();
+
+            writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()));
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            trailer.putLong(offset).putInt(MAGIC).flip();
+            writeFully(channel, trailer);
+            channel.force(true);
+        } finally {
+            deflater.end();
+        }
+
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static Index readIndex(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < TRAILER_SIZE) {
+            throw new IOException("Truncated history file");
+        }
+
+        ByteBuffer trailer = readAt(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+        long indexOffset = trailer.getLong();
+        if (trailer.getInt() != MAGIC || indexOffset < 0 || indexOffset > size - TRAILER_SIZE) {
+            throw new IOException("Unknown history file format");
+        }
+
+        ByteBuffer index = readAt(channel, indexOffset, (int) (size - TRAILER_SIZE - indexOffset));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+        int version = in.readInt();
+        if (version != VERSION && version != 1) {
+            throw new IOException("Unsupported history file version");
+        }
+        int storedColumns = version == 1 ? V1_COLUMNS : COLUMNS;
+
+        int rowCount = in.readInt();
+        int blockCount = in.readInt();
+        List<Block> blocks = new ArrayList<>(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            String firstUser = in.readUTF();
+            String lastUser = in.readUTF();
+            int rows = in.readInt();
+            long[] offsets = new long[COLUMNS];
+            int[] lengths = new int[COLUMNS];
+            int[] rawLengths = new int[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                if (column >= storedColumns) {
+                    offsets[column] = -1;
+                    continue;
+                }
+                offsets[column] = in.readLong();
+                lengths[column] = in.readInt();
+                rawLengths[column] = in.readInt();
+            }
+            blocks.add(new Block(firstUser, lastUser, rows, offsets, lengths, rawLengths));
+        }
+        return new Index(rowCount, blocks);
+    }
+
+    // userId의 행만 consumer로 전달. columns 비트(1 << COL_*)에 없는 컬럼은 압축 해제하지 않음
+    static void scanUser(FileChannel channel, Index index, String userId, int columns, Consumer<Row> consumer)
+            throws IOException {
+        for (Block block : index.blocksFor(userId)) {
+            // 같은 userId 행은 블록 안에서 연속
+            DataInputStream users = readColumn(channel, block, COL_USER);
+            int first = -1;
+            int count = 0;
+            for (int i = 0; i < block.rows(); i++) {
+                if (users.readUTF().equals(userId)) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    count++;
+                } else if (first >= 0) {
+                    break;
+                }
+            }
+            if (count == 0) {
+                continue;
+            }
+
+            long[] times = readTimes(readColumn(channel, block, COL_TIME), first, count);
+            String[] types = readStrings(channel, block, COL_TYPE, columns, first, count);
+            Long[] amounts = readAmounts(channel, block, columns, first, count);
+            String[] countries = readStrings(channel, block, COL_COUNTRY, columns, first, count);
+            String[] riskLevels = readStrings(channel, block, COL_RISK, columns, first, count);
+            String[] srcIps = readStrings(channel, block, COL_SRC_IP, columns, first, count);
+            String[] ipFlags = readStrings(channel, block, COL_IP_FLAGS, columns, first, count);
+            String[] ipCountries = readStrings(channel, block, COL_IP_COUNTRY, columns, first, count);
+
+            for (int i = 0; i < count; i++) {
+                consumer.accept(new Row(userId, times[i], types[i], amounts[i], countries[i], riskLevels[i], srcIps[i],
+                        ipFlags[i], ipCountries[i]));
+            }
+        }
+    }
+
+    private static byte[] encodeColumn(List<Row> rows, int from, int to, int column) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        long previousTime = 0;
+
+        for (int i = from; i < to; i++) {
+            Row row = rows.get(i);
+            switch (column) {
+                case COL_USER -> out.writeUTF(row.userId());
+                case COL_TIME -> {
+                    // 사용자별로 시각 순이므로 delta로 저장하면 대부분 작은 값이 되어 압축이 잘 됨
+                    out.writeLong(row.timeMillis() - previousTime);
+                    previousTime = row.timeMillis();
+                }
+                case COL_TYPE -> out.writeUTF(nullToEmpty(row.eventType()));
+                case COL_AMOUNT -> out.writeLong(row.amount() != null ? row.amount() : NO_AMOUNT);
+                case COL_COUNTRY -> out.writeUTF(nullToEmpty(row.country()));
+                case COL_RISK -> out.writeUTF(nullToEmpty(row.riskLevel()));
+                case COL_SRC_IP -> out.writeUTF(nullToEmpty(row.srcIp()));
+                case COL_IP_FLAGS -> out.writeUTF(nullToEmpty(row.ipFlags()));
+                case COL_IP_COUNTRY -> out.writeUTF(nullToEmpty(row.ipCountry()));
+                default -> throw new IllegalArgumentException("Unknown column: " + column);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static long[] readTimes(DataInputStream in, int first, int count) throws IOException {
+        long[] times = new long[count];
+        long time = 0;
+        for (int i = 0; i < first + count; i++) {
+            time += in.readLong();
+            if (i >= first) {
+                times[i - first] = time;
+            }
+        }
+        return times;
+    }
+
+    private static Long[] readAmounts(FileChannel channel, Block block, int columns, int first, int count)
+            throws IOException {
+        Long[] amounts = new Long[count];
+        if ((columns & (1 << COL_AMOUNT)) == 0) {
+            return amounts;
+        }
+
+        DataInputStream in = readColumn(channel, block, COL_AMOUNT);
+        in.skipNBytes((long) first * Long.BYTES);
+        for (int i = 0; i < count; i++) {
+            long amount = in.readLong();
+            amounts[i] = amount != NO_AMOUNT ? amount : null;
+        }
+        return amounts;
+    }
+
+    private static String[] readStrings(FileChannel channel, Block block, int column, int columns, int first, int count)
+            throws IOException {
+        String[] values = new String[count];
+        // 요청하지 않았거나 이전 버전 파일에 없는 컬럼
+        if ((columns & (1 << column)) == 0 || block.offsets()[column] < 0) {
+            return values;
+        }
+
+        DataInputStream in = readColumn(channel, block, column);
+        for (int i = 0; i < first; i++) {
+            in.skipNBytes(in.readUnsignedShort());
+        }
+        for (int i = 0; i < count; i++) {
+            String value = in.readUTF();
+            values[i] = value.isEmpty() ? null : value;
+        }
+        return values;
+    }
+
+    private static DataInputStream readColumn(FileChannel channel, Block block, int column) throws IOException {
+        ByteBuffer compressed = readAt(channel, block.offsets()[column], block.lengths()[column]);
+        byte[] raw = new byte[block.rawLengths()[column]];
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array());
+            int read = 0;
+            while (read < raw.length) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != raw.length) {
+                throw new IOException("Corrupted history column chunk");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted history column chunk", e);
+        } finally {
+            inflater.end();
+        }
+        return new DataInputStream(new ByteArrayInputStream(raw));
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated history file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return written;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,167 @@
+package com.fds.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+// 하루치 행을 chunkRows 단위로 정렬해 임시 파일(run)로 내보내고, run들을 k-way merge해 ROW_ORDER 순서로 돌려줌
+// 메모리에는 chunk 하나와 run별 현재 행만 유지하며, 한 chunk로 끝나면 임시 파일 없이 메모리에서 정렬
+final class HistoryRowSorter implements Closeable {
+
+    private static final int IO_BUFFER_BYTES = 64 * 1024;
+
+    private record Head(HistoryFile.Row row, int run) {}
+
+    private final Path tempDir;
+    private final int chunkRows;
+    private final List<HistoryFile.Row> chunk;
+    private final List<Path> runs = new ArrayList<>();
+    private final List<Integer> runSizes = new ArrayList<>();
+    private final List<DataInputStream> readers = new ArrayList<>();
+    private int rowCount;
+
+    HistoryRowSorter(Path tempDir, int chunkRows) {
+        this.tempDir = tempDir;
+        this.chunkRows = Math.max(1, chunkRows);
+        this.chunk = new ArrayList<>(Math.min(this.chunkRows, 16_384));
+    }
+
+    void add(HistoryFile.Row row) {
+        chunk.add(row);
+        rowCount++;
+        if (chunk.size() >= chunkRows) {
+            try {
+                spill();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    // 읽는 도중의 I/O 오류는 UncheckedIOException으로 전달
+    Iterator<HistoryFile.Row> sorted() throws IOException {
+        if (runs.isEmpty()) {
+            chunk.sort(HistoryFile.ROW_ORDER);
+            return chunk.iterator();
+        }
+        if (!chunk.isEmpty()) {
+            spill();
+        }
+
+        Comparator<Head> order = Comparator.comparing(Head::row, HistoryFile.ROW_ORDER);
+        PriorityQueue<Head> heads = new PriorityQueue<>(runs.size(), order);
+        int[] remaining = new int[runs.size()];
+        for (int run = 0; run < runs.size(); run++) {
+            readers.add(new DataInputStream(new BufferedInputStream(Files.newInputStream(runs.get(run)), IO_BUFFER_BYTES)));
+            remaining[run] = runSizes.get(run);
+            if (remaining[run]-- > 0) {
+                heads.add(new Head(readRow(readers.get(run)), run));
+            }
+        }
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public HistoryFile.Row next() {
+                Head head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (remaining[head.run()]-- > 0) {
+                    try {
+                        heads.add(new Head(readRow(readers.get(head.run())), head.run()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return head.row();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        for (DataInputStream reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+                // 임시 파일은 아래에서 삭제
+            }
+        }
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException ignored) {
+                // 다음 압축 때 덮어쓰지 않으므로 남아도 조회에는 영향 없음
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        chunk.sort(HistoryFile.ROW_ORDER);
+        Path run = Files.createTempFile(tempDir, "fds-", ".run");
+        runs.add(run);
+        runSizes.add(chunk.size());
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(run), IO_BUFFER_BYTES))) {
+            for (HistoryFile.Row row : chunk) {
+                writeRow(out, row);
+            }
+        }
+        chunk.clear();
+    }
+
+    private static void writeRow(DataOutputStream out, HistoryFile.Row row) throws IOException {
+        out.writeUTF(row.userId());
+        out.writeLong(row.timeMillis());
+        out.writeBoolean(row.amount() != null);
+        out.writeLong(row.amount() != null ? row.amount() : 0L);
+        writeNullable(out, row.eventType());
+        writeNullable(out, row.country());
+        writeNullable(out, row.riskLevel());
+        writeNullable(out, row.srcIp());
+        writeNullable(out, row.ipFlags());
+        writeNullable(out, row.ipCountry());
+    }
+
+    private static HistoryFile.Row readRow(DataInputStream in) throws IOException {
+        String userId = in.readUTF();
+        long timeMillis = in.readLong();
+        boolean hasAmount = in.readBoolean();
+        long amount = in.readLong();
+        return new HistoryFile.Row(userId, timeMillis, readNullable(in), hasAmount ? amount : null,
+                readNullable(in), readNullable(in), readNullable(in), readNullable(in), readNullable(in));
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
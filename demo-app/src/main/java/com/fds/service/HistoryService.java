@@ -0,0 +1,371 @@
+package com.fds.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fds.dto.HistoryEvent;
+import com.fds.dto.HistoryResult;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 지난 로그(logs/fds-YYYY-MM-DD.json)를 일 단위로 컬럼 파일(history/fds-YYYY-MM-DD.col)로 압축하고
+// 사용자별 타임라인/집계를 일자 범위로 조회 (일자별로 병렬 조회)
+// 아직 압축되지 않은 일자(오늘 포함)는 원본 로그를 직접 읽어 같은 형태로 합침
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HistoryService {
+
+    private static final String LOG_DIR = "logs";
+    private static final Pattern LOG_FILE_PATTERN = Pattern.compile("fds-(\\d{4}-\\d{2}-\\d{2})\\.json");
+    private static final Pattern HISTORY_FILE_PATTERN = Pattern.compile("fds-(\\d{4}-\\d{2}-\\d{2})\\.col");
+
+    // 집계에는 시각/유형/금액/국가만 필요하고, 타임라인을 요청할 때만 나머지 컬럼을 읽음
+    private static final int AGGREGATE_COLUMNS = (1 << HistoryFile.COL_TYPE) | (1 << HistoryFile.COL_AMOUNT)
+            | (1 << HistoryFile.COL_COUNTRY);
+    private static final int TIMELINE_COLUMNS = AGGREGATE_COLUMNS | (1 << HistoryFile.COL_RISK)
+            | (1 << HistoryFile.COL_SRC_IP) | (1 << HistoryFile.COL_IP_FLAGS) | (1 << HistoryFile.COL_IP_COUNTRY);
+
+    private final ObjectMapper objectMapper;
+    private final EventRollup eventRollup;
+
+    @Value("${fds.history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fds.history.dir:history}")
+    private String historyDir;
+
+    @Value("${fds.history.block-rows:4096}")
+    private int blockRows;
+
+    // 압축 시 한 번에 메모리에서 정렬하는 행 수 (넘으면 정렬된 chunk를 임시 파일로 내보내고 병합)
+    @Value("${fds.history.sort-chunk-rows:200000}")
+    private int sortChunkRows;
+
+    @Value("${fds.history.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${fds.history.timeline-limit:1000}")
+    private int timelineLimit;
+
+    private final ForkJoinPool queryPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    // 컬럼 파일은 한 번 쓰면 바뀌지 않으므로 수정 시각이 같으면 index를 재사용
+    private final Map<Path, CachedIndex> indexCache = new ConcurrentHashMap<>();
+
+    private record CachedIndex(long modifiedMillis, HistoryFile.Index index) {}
+
+    private record DayHistory(boolean compacted, boolean raw, List<HistoryFile.Row> rows) {}
+
+    @PreDestroy
+    void shutdown() {
+        queryPool.shutdownNow();
+    }
+
+    // 매일 자정 이후 어제까지의 로그 중 아직 압축되지 않았거나 압축 후 추가 기록된 일자를 압축
+    @Scheduled(cron = "${fds.history.compact-cron:0 10 0 * * *}")
+    public void compactScheduled() {
+        if (enabled) {
+            compactPending();
+        }
+    }
+
+    // 원본 로그가 샘플링되면 압축 결과의 건수/합계가 실제보다 작게 고정되므로 압축하지 않음 (원본 로그로 조회)
+    public synchronized int compactPending() {
+        if (!eventRollup.isRawLogComplete()) {
+            log.warn("HISTORY_COMPACTION_SKIPPED reason=RAW_LOG_SAMPLED (fds.rollup.raw-sample-rate < 1.0)");
+            return 0;
+        }
+
+        File[] candidates = new File(LOG_DIR).listFiles();
+        if (candidates == null) {
+            log.warn("Log directory not found: {}", LOG_DIR);
+            return 0;
+        }
+
+        try {
+            Files.createDirectories(Paths.get(historyDir));
+        } catch (IOException e) {
+            log.error("Failed to create history directory: {}", historyDir, e);
+            return 0;
+        }
+
+        LocalDate today = LocalDate.now();
+        int compacted = 0;
+        for (File file : candidates) {
+            Matcher matcher = LOG_FILE_PATTERN.matcher(file.getName());
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            LocalDate day = LocalDate.parse(matcher.group(1));
+            Path target = historyPath(day);
+            if (!day.isBefore(today) || (Files.exists(target) && target.toFile().lastModified() >= file.lastModified())) {
+                continue;
+            }
+            if (compactDay(day, file.toPath(), target)) {
+                compacted++;
+            }
+        }
+
+        deleteExpired(today.minusDays(retentionDays));
+        return compacted;
+    }
+
+    private boolean compactDay(LocalDate day, Path source, Path target) {
+        long start = System.nanoTime();
+        try (HistoryRowSorter sorter = new HistoryRowSorter(Paths.get(historyDir), sortChunkRows)) {
+            readRawLog(source, null, sorter::add);
+            HistoryFile.write(target, sorter.sorted(), blockRows);
+            log.info("HISTORY_COMPACTED day={} rows={} rawBytes={} bytes={} elapsedMs={}",
+                    day, sorter.rowCount(), Files.size(source), Files.size(target),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to compact history for {}", day, e);
+            return false;
+        }
+    }
+
+    private void deleteExpired(LocalDate cutoff) {
+        File[] files = new File(historyDir).listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            Matcher matcher = HISTORY_FILE_PATTERN.matcher(file.getName());
+            if (matcher.matches() && LocalDate.parse(matcher.group(1)).isBefore(cutoff)) {
+                indexCache.remove(file.toPath());
+                if (file.delete()) {
+                    log.info("HISTORY_EXPIRED file={}", file.getName());
+                }
+            }
+        }
+    }
+
+    public HistoryResult query(String userId, LocalDate from, LocalDate to, boolean timeline) {
+        long start = System.nanoTime();
+        int columns = timeline ? TIMELINE_COLUMNS : AGGREGATE_COLUMNS;
+
+        List<Callable<DayHistory>> tasks = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            LocalDate target = day;
+            tasks.add(() -> queryDay(userId, target, columns));
+        }
+
+        List<DayHistory> days = new ArrayList<>(tasks.size());
+        try {
+            for (Future<DayHistory> future : queryPool.invokeAll(tasks)) {
+                days.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("History query interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("History query failed", e.getCause());
+        }
+
+        int compactedDays = 0;
+        int rawDays = 0;
+        List<HistoryFile.Row> rows = new ArrayList<>();
+        for (DayHistory day : days) {
+            compactedDays += day.compacted() ? 1 : 0;
+            rawDays += day.raw() ? 1 : 0;
+            // 일자 순으로 합치고, 하루 안에서는 이미 시각 순
+            rows.addAll(day.rows());
+        }
+
+        List<HistoryEvent> events = null;
+        Boolean truncated = null;
+        if (timeline) {
+            // 최근 이벤트가 조사에 더 유용하므로 한도를 넘으면 가장 최근 것만 반환
+            int skip = Math.max(0, rows.size() - timelineLimit);
+            events = new ArrayList<>(rows.size() - skip);
+            ZoneId zone = ZoneId.systemDefault();
+            for (HistoryFile.Row row : rows.subList(skip, rows.size())) {
+                events.add(new HistoryEvent(
+                        OffsetDateTime.ofInstant(Instant.ofEpochMilli(row.timeMillis()), zone).toString(),
+                        row.eventType(), row.amount(), row.country(), row.riskLevel(), row.srcIp(),
+                        row.ipFlags(), row.ipCountry()));
+            }
+            truncated = skip > 0;
+        }
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        log.info("HISTORY_QUERY userId={} from={} to={} events={} compactedDays={} rawDays={} elapsedMs={}",
+                userId, from, to, rows.size(), compactedDays, rawDays, elapsedMs);
+
+        // 샘플링된 원본 로그에서 읽은 일자가 있으면 집계가 실제보다 작을 수 있음을 표시
+        Boolean sampled = rawDays > 0 && !eventRollup.isRawLogComplete() ? Boolean.TRUE : null;
+
+        return new HistoryResult(userId, from.toString(), to.toString(), compactedDays, rawDays, elapsedMs,
+                aggregate(rows), events, truncated, sampled);
+    }
+
+    private DayHistory queryDay(String userId, LocalDate day, int columns) {
+        List<HistoryFile.Row> rows = new ArrayList<>();
+
+        Path compacted = historyPath(day);
+        if (Files.exists(compacted)) {
+            try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.READ)) {
+                HistoryFile.scanUser(channel, index(compacted, channel), userId, columns, rows::add);
+                return new DayHistory(true, false, rows);
+            } catch (IOException | RuntimeException e) {
+                // 손상된 컬럼 파일은 원본 로그로 대체
+                log.warn("Failed to read history file {}, falling back to raw log", compacted, e);
+                rows.clear();
+            }
+        }
+
+        Path raw = Paths.get(LOG_DIR, "fds-" + day + ".json");
+        if (!Files.exists(raw)) {
+            return new DayHistory(false, false, rows);
+        }
+        try {
+            readRawLog(raw, userId, rows::add);
+            rows.sort(HistoryFile.ROW_ORDER);
+        } catch (IOException e) {
+            log.error("Error reading log file: {}", raw, e);
+        }
+        return new DayHistory(false, true, rows);
+    }
+
+    private HistoryFile.Index index(Path path, FileChannel channel) throws IOException {
+        long modified = path.toFile().lastModified();
+        CachedIndex cached = indexCache.get(path);
+        if (cached != null && cached.modifiedMillis() == modified) {
+            return cached.index();
+        }
+
+        HistoryFile.Index index = HistoryFile.readIndex(channel);
+        indexCache.put(path, new CachedIndex(modified, index));
+        return index;
+    }
+
+    // userId가 null이면 모든 사용자의 행을 전달
+    private void readRawLog(Path file, String userId, Consumer<HistoryFile.Row> consumer) throws IOException {
+        // JSON 파싱 전에 userId 문자열로 대부분의 다른 사용자 행을 걸러냄
+        String needle = userId != null ? "\"userId\":\"" + userId + "\"" : null;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (needle != null && !line.contains(needle)) {
+                    continue;
+                }
+
+                JsonNode node;
+                try {
+                    node = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    continue;
+                }
+
+                HistoryFile.Row row = parseRow(node);
+                if (row != null && (userId == null || userId.equals(row.userId()))) {
+                    consumer.accept(row);
+                }
+            }
+        }
+    }
+
+    private HistoryFile.Row parseRow(JsonNode node) {
+        String eventType = node.path("eventType").asText(null);
+        String userId = node.path("userId").asText(null);
+        if (eventType == null || userId == null) {
+            return null;
+        }
+
+        long timeMillis;
+        try {
+            timeMillis = OffsetDateTime.parse(node.path("timestamp").asText(node.path("@timestamp").asText()))
+                    .toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+
+        Long amount = null;
+        if (node.hasNonNull("amount")) {
+            try {
+                amount = Long.parseLong(node.path("amount").asText());
+            } catch (NumberFormatException ignored) {
+                // 금액 없는 이벤트로 저장
+            }
+        }
+
+        return new HistoryFile.Row(userId, timeMillis, eventType, amount,
+                node.path("country").asText(null), node.path("riskLevel").asText(null), node.path("srcIp").asText(null),
+                node.path("ipFlags").asText(null), node.path("ipCountry").asText(null));
+    }
+
+    private Map<String, Object> aggregate(List<HistoryFile.Row> rows) {
+        Map<String, Long> byEventType = new TreeMap<>();
+        TreeSet<String> countries = new TreeSet<>();
+        long transferCount = 0;
+        long amountSum = 0;
+        long amountMax = 0;
+
+        for (HistoryFile.Row row : rows) {
+            byEventType.merge(row.eventType(), 1L, Long::sum);
+            if (row.country() != null) {
+                countries.add(row.country());
+            }
+            if ("TRANSFER".equals(row.eventType()) && row.amount() != null) {
+                transferCount++;
+                amountSum += row.amount();
+                amountMax = Math.max(amountMax, row.amount());
+            }
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        return Map.of(
+                "events", rows.size(),
+                "by_event_type", byEventType,
+                "countries", countries,
+                "transfer_count", transferCount,
+                "transfer_amount_sum", amountSum,
+                "transfer_amount_avg", transferCount > 0 ? amountSum / transferCount : 0,
+                "transfer_amount_max", amountMax,
+                "first_seen", rows.isEmpty() ? "" : OffsetDateTime.ofInstant(
+                        Instant.ofEpochMilli(rows.get(0).timeMillis()), zone).toString(),
+                "last_seen", rows.isEmpty() ? "" : OffsetDateTime.ofInstant(
+                        Instant.ofEpochMilli(rows.get(rows.size() - 1).timeMillis()), zone).toString()
+        );
+    }
+
+    private Path historyPath(LocalDate day) {
+        return Paths.get(historyDir, "fds-" + day + ".col");
+    }
+}
@@ -0,0 +1,276 @@
+package com.fds.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// srcIp 평판 조회: 로컬 CIDR 파일을 IPv4/IPv6 radix trie로 올려 longest-prefix 매칭
+// {dir}/internal.txt, proxy.txt, tor.txt: 한 줄에 CIDR 하나 / {dir}/country.csv: "CIDR,국가코드"
+// 파일이 바뀌면 새 trie를 만든 뒤 참조만 교체하므로 조회는 멈추지 않음
+@Slf4j
+@Service
+public class IpIntelligence {
+
+    private static final String[] FLAG_FILES = {"internal.txt", "proxy.txt", "tor.txt"};
+    private static final int[] FILE_FLAGS = {IpTrie.FLAG_INTERNAL, IpTrie.FLAG_PROXY, IpTrie.FLAG_TOR};
+    private static final String COUNTRY_FILE = "country.csv";
+
+    // 파일이 없어도 항상 INTERNAL로 표시하는 대역 (RFC 1918, loopback, link-local, ULA)
+    private static final List<String> BUILT_IN_INTERNAL = List.of(
+            "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "127.0.0.0/8", "169.254.0.0/16",
+            "::1/128", "fc00::/7", "fe80::/10"
+    );
+
+    // 플래그 조합(3bit)별 문자열을 미리 만들어 이벤트마다 문자열을 만들지 않음
+    private static final String[] FLAG_NAMES = new String[8];
+
+    static {
+        for (int combination = 1; combination < FLAG_NAMES.length; combination++) {
+            StringBuilder sb = new StringBuilder();
+            if ((combination & IpTrie.FLAG_INTERNAL) != 0) {
+                sb.append("INTERNAL");
+            }
+            if ((combination & IpTrie.FLAG_PROXY) != 0) {
+                sb.append(sb.length() > 0 ? "," : "").append("PROXY");
+            }
+            if ((combination & IpTrie.FLAG_TOR) != 0) {
+                sb.append(sb.length() > 0 ? "," : "").append("TOR");
+            }
+            FLAG_NAMES[combination] = sb.toString();
+        }
+    }
+
+    public record IpInfo(String flags, String country) {
+        public static final IpInfo UNKNOWN = new IpInfo(null, null);
+    }
+
+    private record Snapshot(IpTrie v4, IpTrie v6, Map<String, String> sampleIps, long signature) {}
+
+    @Value("${fds.ip-intel.dir:ip-intel}")
+    private String directory;
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    void init() {
+        snapshot = build(signature());
+    }
+
+    @Scheduled(fixedDelayString = "${fds.ip-intel.reload-interval:30000}")
+    public void reloadIfChanged() {
+        long signature = signature();
+        if (signature != snapshot.signature()) {
+            snapshot = build(signature);
+        }
+    }
+
+    public IpInfo lookup(String ip) {
+        if (ip == null || ip.isEmpty()) {
+            return IpInfo.UNKNOWN;
+        }
+
+        Snapshot current = snapshot;
+        long v4 = parseIpv4(ip);
+        if (v4 >= 0) {
+            return toInfo(current.v4(), current.v4().lookup((int) v4));
+        }
+
+        InetAddress address = parseIpv6(ip);
+        if (address instanceof Inet4Address) {
+            return toInfo(current.v4(), current.v4().lookup(address.getAddress()));
+        }
+        if (address != null) {
+            return toInfo(current.v6(), current.v6().lookup(address.getAddress()));
+        }
+        return IpInfo.UNKNOWN;
+    }
+
+    // 로컬 접속 테스트용 국가별 대표 IP (country.csv의 첫 대역, 없으면 null)
+    public String sampleIp(String country) {
+        return snapshot.sampleIps().get(country);
+    }
+
+    private IpInfo toInfo(IpTrie trie, int result) {
+        String flags = FLAG_NAMES[result & 0x7];
+        String country = trie.countryCode(result);
+        return flags == null && country == null ? IpInfo.UNKNOWN : new IpInfo(flags, country);
+    }
+
+    private Snapshot build(long signature) {
+        IpTrie v4 = new IpTrie(32);
+        IpTrie v6 = new IpTrie(128);
+        Map<String, String> sampleIps = new HashMap<>();
+        int entries = 0;
+
+        for (String cidr : BUILT_IN_INTERNAL) {
+            entries += insert(v4, v6, cidr, IpTrie.FLAG_INTERNAL, null, null);
+        }
+
+        Path dir = Paths.get(directory);
+        for (int i = 0; i < FLAG_FILES.length; i++) {
+            for (String line : readLines(dir.resolve(FLAG_FILES[i]))) {
+                entries += insert(v4, v6, line, FILE_FLAGS[i], null, null);
+            }
+        }
+
+        for (String line : readLines(dir.resolve(COUNTRY_FILE))) {
+            int comma = line.indexOf(',');
+            if (comma > 0) {
+                String country = line.substring(comma + 1).trim().toUpperCase(Locale.ROOT);
+                entries += insert(v4, v6, line.substring(0, comma).trim(), 0, country, sampleIps);
+            }
+        }
+
+        log.info("IP intelligence loaded: {} ranges, {} IPv4 nodes, {} IPv6 nodes",
+                entries, v4.nodeCount(), v6.nodeCount());
+        return new Snapshot(v4, v6, sampleIps, signature);
+    }
+
+    private int insert(IpTrie v4, IpTrie v6, String cidr, int flag, String country, Map<String, String> sampleIps) {
+        int slash = cidr.indexOf('/');
+        String host = slash < 0 ? cidr : cidr.substring(0, slash);
+
+        byte[] address;
+        long v4Address = parseIpv4(host);
+        if (v4Address >= 0) {
+            address = new byte[]{(byte) (v4Address >>> 24), (byte) (v4Address >>> 16), (byte) (v4Address >>> 8), (byte) v4Address};
+        } else {
+            InetAddress parsed = parseIpv6(host);
+            if (parsed == null) {
+                log.warn("Ignoring invalid CIDR: {}", cidr);
+                return 0;
+            }
+            address = parsed.getAddress();
+        }
+
+        int maxBits = address.length * 8;
+        int prefixLength;
+        try {
+            prefixLength = slash < 0 ? maxBits : Integer.parseInt(cidr.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            prefixLength = -1;
+        }
+        if (prefixLength < 0 || prefixLength > maxBits) {
+            log.warn("Ignoring invalid CIDR: {}", cidr);
+            return 0;
+        }
+
+        (address.length == 4 ? v4 : v6).insert(address, prefixLength, flag, country);
+
+        if (sampleIps != null && address.length == 4) {
+            // 네트워크 주소 다음 주소를 대표 IP로 사용
+            int network = ((address[0] & 0xFF) << 24) | ((address[1] & 0xFF) << 16) | ((address[2] & 0xFF) << 8) | (address[3] & 0xFF);
+            int sample = prefixLength < 32 ? network + 1 : network;
+            sampleIps.putIfAbsent(country, (sample >>> 24) + "." + ((sample >>> 16) & 0xFF) + "."
+                    + ((sample >>> 8) & 0xFF) + "." + (sample & 0xFF));
+        }
+        return 1;
+    }
+
+    private List<String> readLines(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .toList();
+        } catch (IOException e) {
+            log.error("Failed to read IP list: {}", file, e);
+            return List.of();
+        }
+    }
+
+    // 파일 변경 감지용 (수정 시각 + 크기)
+    private long signature() {
+        Path dir = Paths.get(directory);
+        long signature = 17;
+        for (String name : new String[]{FLAG_FILES[0], FLAG_FILES[1], FLAG_FILES[2], COUNTRY_FILE}) {
+            Path file = dir.resolve(name);
+            try {
+                if (Files.isRegularFile(file)) {
+                    signature = signature * 31 + Files.getLastModifiedTime(file).toMillis();
+                    signature = signature * 31 + Files.size(file);
+                }
+            } catch (IOException e) {
+                log.debug("Failed to stat IP list: {}", file);
+            }
+        }
+        return signature;
+    }
+
+    // IPv4(4 bytes) / IPv6(16 bytes) 리터럴을 바이트 배열로 (형식이 아니면 null, DNS 조회 없음)
+    static byte[] parseAddress(String ip) {
+        long v4 = parseIpv4(ip);
+        if (v4 >= 0) {
+            return new byte[]{(byte) (v4 >>> 24), (byte) (v4 >>> 16), (byte) (v4 >>> 8), (byte) v4};
+        }
+        InetAddress address = parseIpv6(ip);
+        return address != null ? address.getAddress() : null;
+    }
+
+    // "a.b.c.d" -> 0 ~ 2^32-1 (형식이 아니면 -1)
+    private static long parseIpv4(String ip) {
+        long result = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && digits > 0 && dots < 3) {
+                result = (result << 8) | octet;
+                octet = 0;
+                digits = 0;
+                dots++;
+            } else {
+                return -1;
+            }
+        }
+
+        if (dots != 3 || digits == 0) {
+            return -1;
+        }
+        return (result << 8) | octet;
+    }
+
+    // IPv6 리터럴만 허용 (호스트 이름이 들어와도 DNS 조회가 일어나지 않도록 문자 검사 후 파싱)
+    private static InetAddress parseIpv6(String ip) {
+        if (ip.indexOf(':') < 0) {
+            return null;
+        }
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            boolean hex = (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+            if (!hex && c != ':' && c != '.') {
+                return null;
+            }
+        }
+        try {
+            return InetAddress.getByName(ip);
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
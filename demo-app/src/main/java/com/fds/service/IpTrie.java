@@ -0,0 +1,117 @@
+package com.fds.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// CIDR 목록을 담는 이진 radix trie (IPv4 32bit / IPv6 128bit 중 한 가지 주소 체계)
+// 노드는 배열 인덱스로만 표현하고, 조회는 경로상의 모든 prefix 플래그를 OR 하고 국가는 가장 긴 prefix 값을 사용
+// 만든 뒤에는 변경하지 않으므로 여러 스레드에서 락 없이 조회 가능
+final class IpTrie {
+
+    static final int FLAG_INTERNAL = 1;
+    static final int FLAG_PROXY = 1 << 1;
+    static final int FLAG_TOR = 1 << 2;
+
+    private static final int NO_COUNTRY = -1;
+
+    private final int bits;
+
+    // 노드 i의 자식: children[2 * i] (bit 0), children[2 * i + 1] (bit 1), 0이면 없음 (0번은 루트)
+    private int[] children;
+    private int[] flags;
+    private int[] countries;
+    private int size = 1;
+
+    private final List<String> countryCodes = new ArrayList<>();
+
+    IpTrie(int bits) {
+        this.bits = bits;
+        this.children = new int[64];
+        this.flags = new int[32];
+        this.countries = new int[32];
+        this.countries[0] = NO_COUNTRY;
+    }
+
+    void insert(byte[] address, int prefixLength, int flag, String country) {
+        int node = 0;
+        for (int i = 0; i < prefixLength; i++) {
+            int bit = (address[i >>> 3] >>> (7 - (i & 7))) & 1;
+            int child = children[2 * node + bit];
+            if (child == 0) {
+                child = newNode();
+                children[2 * node + bit] = child;
+            }
+            node = child;
+        }
+
+        flags[node] |= flag;
+        if (country != null) {
+            int index = countryCodes.indexOf(country);
+            if (index < 0) {
+                index = countryCodes.size();
+                countryCodes.add(country);
+            }
+            countries[node] = index;
+        }
+    }
+
+    // 반환값: 하위 8bit = 플래그, 그 위 = 국가 인덱스 + 1 (0이면 국가 정보 없음)
+    int lookup(byte[] address) {
+        int node = 0;
+        int matchedFlags = flags[0];
+        int country = countries[0];
+
+        for (int i = 0; i < bits; i++) {
+            int bit = (address[i >>> 3] >>> (7 - (i & 7))) & 1;
+            node = children[2 * node + bit];
+            if (node == 0) {
+                break;
+            }
+            matchedFlags |= flags[node];
+            if (countries[node] != NO_COUNTRY) {
+                country = countries[node];
+            }
+        }
+        return matchedFlags | ((country + 1) << 8);
+    }
+
+    // IPv4 전용: 주소를 int로 받아 byte[] 없이 조회
+    int lookup(int address) {
+        int node = 0;
+        int matchedFlags = flags[0];
+        int country = countries[0];
+
+        for (int i = 0; i < 32; i++) {
+            node = children[2 * node + ((address >>> (31 - i)) & 1)];
+            if (node == 0) {
+                break;
+            }
+            matchedFlags |= flags[node];
+            if (countries[node] != NO_COUNTRY) {
+                country = countries[node];
+            }
+        }
+        return matchedFlags | ((country + 1) << 8);
+    }
+
+    String countryCode(int result) {
+        int index = (result >>> 8) - 1;
+        return index < 0 ? null : countryCodes.get(index);
+    }
+
+    int nodeCount() {
+        return size;
+    }
+
+    private int newNode() {
+        if (size == flags.length) {
+            int capacity = flags.length * 2;
+            children = Arrays.copyOf(children, capacity * 2);
+            flags = Arrays.copyOf(flags, capacity);
+            countries = Arrays.copyOf(countries, capacity);
+        }
+        countries[size] = NO_COUNTRY;
+        return size++;
+    }
+}
@@ -0,0 +1,209 @@
+package com.fds.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateLimiter {
+
+    private static final long PERIOD_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final String REDIS_KEY_PREFIX = "rate_limit:";
+    // 맵이 가득 찬 상태에서 새 key마다 전체 sweep/로그가 일어나지 않도록 최소 간격을 둠
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // overflow key를 해시로 나눠 담을 버킷 수 (2의 거듭제곱)
+    private static final int OVERFLOW_STRIPES = 1024;
+
+    private final StringRedisTemplate redisTemplate;
+
+    // 버킷 상태: key -> TAT(theoretical arrival time, nanoTime 기준)
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    // 맵이 가득 찼을 때 새 key가 해시로 배정되는 버킷 (한도별 OVERFLOW_STRIPES개)
+    // 새 key가 몰려도 한 버킷을 모두가 나눠 쓰지 않고, 같은 stripe에 걸린 key끼리만 한도를 공유
+    private final Map<Integer, AtomicLong[]> overflowBuckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastSweepNanos = new AtomicLong(System.nanoTime() - SWEEP_INTERVAL_NANOS);
+    private final LongAdder overflowed = new LongAdder();
+
+    @Value("${fds.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${fds.rate-limit.redis-enabled:false}")
+    private boolean redisEnabled;
+
+    // 허용되면 0, 거절되면 재시도까지 남은 시간(ms)을 반환
+    public long tryAcquire(String key, int permitsPerMinute) {
+        return tryAcquire(key, permitsPerMinute, 1);
+    }
+
+    // permits개를 한 번에 차감 (배치 송금의 항목 수 등). 전부 허용되거나 전부 거절됨
+    public long tryAcquire(String key, int permitsPerMinute, int permits) {
+        if (permitsPerMinute <= 0 || permits <= 0) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        long waitNanos = acquireLocal(bucketFor(key, permitsPerMinute, now), permitsPerMinute, permits, now);
+        if (waitNanos > 0) {
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+
+        if (redisEnabled) {
+            long retryAfterMillis = acquireCluster(key, permitsPerMinute, permits);
+            if (retryAfterMillis > 0) {
+                // 클러스터 한도에서 거절되면 로컬에서 차감한 만큼도 되돌림
+                releaseLocal(key, permitsPerMinute, permits);
+            }
+            return retryAfterMillis;
+        }
+        return 0;
+    }
+
+    // tryAcquire로 받은 permits를 되돌림 (여러 key를 차례로 차감하다 뒤에서 거절된 경우)
+    public void release(String key, int permitsPerMinute, int permits) {
+        if (permitsPerMinute <= 0 || permits <= 0 || permits > permitsPerMinute) {
+            return;
+        }
+
+        releaseLocal(key, permitsPerMinute, permits);
+        if (redisEnabled) {
+            releaseCluster(key, permits);
+        }
+    }
+
+    private void releaseLocal(String key, int permitsPerMinute, int permits) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = overflowBucket(key, permitsPerMinute, System.nanoTime(), false);
+        }
+        if (bucket != null) {
+            bucket.addAndGet(-(PERIOD_NANOS / permitsPerMinute) * permits);
+        }
+    }
+
+    // 토큰 버킷을 GCRA 형태로 단일 long CAS로 갱신 (락/할당 없음)
+    private long acquireLocal(AtomicLong bucket, int permitsPerMinute, int permits, long now) {
+        // 분당 한도보다 많은 permits는 기다려도 허용될 수 없으므로 한 주기 뒤로 안내
+        if (permits > permitsPerMinute) {
+            return PERIOD_NANOS;
+        }
+
+        long interval = PERIOD_NANOS / permitsPerMinute;
+        long burstTolerance = PERIOD_NANOS - interval;
+        long cost = interval * permits;
+
+        while (true) {
+            long tat = bucket.get();
+            long base = tat - now > 0 ? tat : now;
+            long ahead = base + cost - interval - now;
+
+            if (ahead > burstTolerance) {
+                return ahead - burstTolerance;
+            }
+
+            if (bucket.compareAndSet(tat, base + cost)) {
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong bucketFor(String key, int permitsPerMinute, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+
+        if (buckets.size() >= maxKeys) {
+            sweepIdleBuckets(now);
+            if (buckets.size() >= maxKeys) {
+                overflowed.increment();
+                return overflowBucket(key, permitsPerMinute, now, true);
+            }
+        }
+
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private AtomicLong overflowBucket(String key, int permitsPerMinute, long now, boolean create) {
+        AtomicLong[] stripes = create
+                ? overflowBuckets.computeIfAbsent(permitsPerMinute, p -> newStripes(now))
+                : overflowBuckets.get(permitsPerMinute);
+        if (stripes == null) {
+            return null;
+        }
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (OVERFLOW_STRIPES - 1)];
+    }
+
+    private static AtomicLong[] newStripes(long now) {
+        AtomicLong[] stripes = new AtomicLong[OVERFLOW_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new AtomicLong(now);
+        }
+        return stripes;
+    }
+
+    // TAT가 지난 버킷은 가득 찬 상태와 같으므로 제거해도 동작이 바뀌지 않음
+    // SWEEP_INTERVAL_NANOS에 한 번만 실행하고, 그 사이 overflow 버킷으로 간 key 수는 sweep 때 한 번에 기록
+    private void sweepIdleBuckets(long now) {
+        long last = lastSweepNanos.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        long overflowCount = overflowed.sumThenReset();
+        if (overflowCount > 0) {
+            log.warn("RATE_LIMIT_OVERFLOW size={} overflowedKeys={}", buckets.size(), overflowCount);
+        }
+        log.info("Rate limit buckets swept: {} -> {}", before, buckets.size());
+    }
+
+    // 클러스터 전체 한도: 분 단위 고정 윈도우 카운터 (Redis 장애 시 허용)
+    private long acquireCluster(String key, int permitsPerMinute, int permits) {
+        long epochMinute = System.currentTimeMillis() / 60_000;
+        String redisKey = REDIS_KEY_PREFIX + key + ":" + epochMinute;
+
+        try {
+            Long count = redisTemplate.opsForValue().increment(redisKey, permits);
+            if (count != null && count == permits) {
+                redisTemplate.expire(redisKey, Duration.ofMinutes(2));
+            }
+
+            if (count != null && count > permitsPerMinute) {
+                // 거절된 요청은 한도를 소비하지 않도록 되돌림
+                redisTemplate.opsForValue().decrement(redisKey, permits);
+                return 60_000 - (System.currentTimeMillis() % 60_000);
+            }
+        } catch (Exception e) {
+            log.error("Failed to check cluster rate limit for key: {}", key, e);
+        }
+        return 0;
+    }
+
+    private void releaseCluster(String key, int permits) {
+        String redisKey = REDIS_KEY_PREFIX + key + ":" + System.currentTimeMillis() / 60_000;
+        try {
+            Long count = redisTemplate.opsForValue().decrement(redisKey, permits);
+            if (count != null && count < 0) {
+                // 차감 직후 분이 바뀐 경우: 새 윈도우 key에 TTL 없이 음수 카운터가 남지 않도록 함
+                redisTemplate.expire(redisKey, Duration.ofMinutes(2));
+            }
+        } catch (Exception e) {
+            log.error("Failed to release cluster rate limit for key: {}", key, e);
+        }
+    }
+}
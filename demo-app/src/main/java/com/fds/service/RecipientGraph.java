@@ -0,0 +1,379 @@
+package com.fds.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// 송금자 → 수취 계좌 간선을 시간 윈도우로 유지하며, 짧은 시간에 여러 송금자로부터 입금받는 계좌(대포통장 의심)를 탐지
+// 문자열 대신 64bit 해시를 키로 쓰는 open addressing 배열만 사용하므로 메모리는 설정한 용량으로 고정됨
+// 수취 계좌 해시로 세그먼트를 나눠 세그먼트 단위로만 잠금
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecipientGraph {
+
+    private static final long EMPTY = 0L;
+    // 사용되지 않은 버킷 id (윈도우 계산에서 항상 만료로 취급)
+    private static final int UNUSED_BUCKET = Integer.MIN_VALUE / 2;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fds.recipient-graph.window:30m}")
+    private Duration window;
+
+    // 윈도우를 나누는 버킷 수 (만료 정밀도 = window / buckets)
+    @Value("${fds.recipient-graph.buckets:6}")
+    private int buckets;
+
+    // 기본값은 세그먼트당 테이블 크기가 2의 거듭제곱(간선 65536, 계좌 16384 슬롯)에 딱 맞도록 잡은 값 (약 30MB)
+    @Value("${fds.recipient-graph.max-edges:786432}")
+    private int maxEdges;
+
+    @Value("${fds.recipient-graph.max-recipients:196608}")
+    private int maxRecipients;
+
+    @Value("${fds.recipient-graph.segments:16}")
+    private int segmentCount;
+
+    @Value("${fds.recipient-graph.fan-in-threshold:10}")
+    private int fanInThreshold;
+
+    private Segment[] segments;
+    private int segmentShift;
+    private long bucketMillis;
+    private Counter droppedCounter;
+    private Counter flaggedCounter;
+
+    @PostConstruct
+    void init() {
+        int segmentsPow2 = Integer.highestOneBit(Math.max(1, segmentCount));
+        segmentShift = 64 - Integer.numberOfTrailingZeros(segmentsPow2);
+        bucketMillis = Math.max(1, window.toMillis() / buckets);
+
+        int edgeCapacity = tableCapacity(maxEdges / segmentsPow2);
+        int recipientCapacity = tableCapacity(maxRecipients / segmentsPow2);
+
+        segments = new Segment[segmentsPow2];
+        for (int i = 0; i < segmentsPow2; i++) {
+            segments[i] = new Segment(edgeCapacity, recipientCapacity);
+        }
+
+        droppedCounter = meterRegistry.counter("fds.recipient.dropped");
+        flaggedCounter = meterRegistry.counter("fds.recipient.flagged");
+        Gauge.builder("fds.recipient.edges", this, RecipientGraph::edgeCount).register(meterRegistry);
+
+        // 간선 슬롯: key 8 + 마지막 버킷 4 + 송금 횟수 4, 계좌 슬롯: key 8 + 버킷별 (count 4 + bucket id 4)
+        long edgeSlots = (long) edgeCapacity * segmentsPow2;
+        long recipientSlots = (long) recipientCapacity * segmentsPow2;
+        long bytes = edgeSlots * 16 + recipientSlots * (8 + 8L * buckets);
+        log.info("Recipient graph initialized: segments={} edgeSlots={} recipientSlots={} memory={}MB window={}",
+                segmentsPow2, edgeSlots, recipientSlots, bytes >> 20, window);
+    }
+
+    // 송금 1건 반영 결과
+    // fanIn: 윈도우 내 해당 계좌의 고유 송금자 수, senderTransfers: 윈도우 내 이 송금자 → 계좌 송금 횟수(간선 가중치)
+    public record Activity(int fanIn, int senderTransfers) {}
+
+    // 송금 1건 반영 후 윈도우 내 활동을 반환 (용량 초과로 기록하지 못하면 null)
+    public Activity recordTransfer(String senderId, String toBank, String toAccountId) {
+        long recipientKey = recipientKey(toBank, toAccountId);
+        long edgeKey = nonEmpty(mix(recipientKey ^ Long.rotateLeft(hash64(senderId), 29)));
+        int nowBucket = currentBucket();
+
+        Segment segment = segmentFor(recipientKey);
+        Activity activity;
+        synchronized (segment) {
+            activity = segment.record(recipientKey, edgeKey, nowBucket);
+        }
+
+        if (activity == null) {
+            droppedCounter.increment();
+            return null;
+        }
+
+        if (activity.fanIn() == fanInThreshold) {
+            flaggedCounter.increment();
+            log.warn("MULE_SUSPECTED toBank={} toAccountId={} distinctSenders={} window={}",
+                    toBank, toAccountId, activity.fanIn(), window);
+        }
+        return activity;
+    }
+
+    // 윈도우가 지난 간선과 송금자가 없는 계좌를 정리
+    @Scheduled(fixedDelayString = "${fds.recipient-graph.sweep-interval:60000}")
+    public void sweep() {
+        int nowBucket = currentBucket();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.sweep(nowBucket);
+            }
+        }
+    }
+
+    private long edgeCount() {
+        long count = 0;
+        for (Segment segment : segments) {
+            count += segment.edgeSize;
+        }
+        return count;
+    }
+
+    private Segment segmentFor(long recipientKey) {
+        return segments.length == 1 ? segments[0] : segments[(int) (recipientKey >>> segmentShift)];
+    }
+
+    private int currentBucket() {
+        return (int) (System.currentTimeMillis() / bucketMillis);
+    }
+
+    private static int tableCapacity(int entries) {
+        // load factor 0.75
+        int needed = Math.max(16, (int) Math.min(1 << 30, (long) entries * 4 / 3));
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static long recipientKey(String toBank, String toAccountId) {
+        long h = hash64(toBank);
+        h = (h ^ '|') * 0x100000001b3L;
+        return nonEmpty(mix(h ^ hash64(toAccountId)));
+    }
+
+    // FNV-1a 64bit
+    private static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                h ^= value.charAt(i);
+                h *= 0x100000001b3L;
+            }
+        }
+        return h;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private static long nonEmpty(long key) {
+        return key == EMPTY ? 1L : key;
+    }
+
+    private final class Segment {
+
+        // 간선: (수취 계좌, 송금자) 해시 → 마지막 송금 버킷, 윈도우 내 송금 횟수
+        // 송금 횟수는 마지막 송금이 윈도우를 벗어난 뒤 다시 송금하면 1부터 다시 셈
+        private final long[] edgeKeys;
+        private final int[] edgeLastBucket;
+        private final int[] edgeWeight;
+        private int edgeSize;
+
+        // 수취 계좌: 계좌 해시 → 버킷별 "마지막 송금이 그 버킷인 송금자 수"
+        private final long[] recipientKeys;
+        private final int[] recipientCounts;
+        private final int[] recipientBucketIds;
+        private int recipientSize;
+
+        private final int edgeCapacity;
+        private final int recipientCapacity;
+
+        // 만료는 버킷 단위라 같은 버킷 안에서 다시 sweep해도 지울 항목이 없음
+        // 가득 찬 세그먼트에서 새 간선마다 전체 sweep이 반복되지 않도록 버킷당 한 번만 sweep
+        private int lastSweepBucket = UNUSED_BUCKET;
+
+        Segment(int edgeCapacity, int recipientCapacity) {
+            this.edgeCapacity = edgeCapacity;
+            this.recipientCapacity = recipientCapacity;
+
+            edgeKeys = new long[edgeCapacity];
+            edgeLastBucket = new int[edgeCapacity];
+            edgeWeight = new int[edgeCapacity];
+
+            recipientKeys = new long[recipientCapacity];
+            recipientCounts = new int[recipientCapacity * buckets];
+            recipientBucketIds = new int[recipientCapacity * buckets];
+            Arrays.fill(recipientBucketIds, UNUSED_BUCKET);
+        }
+
+        Activity record(long recipientKey, long edgeKey, int nowBucket) {
+            int recipient = findOrInsertRecipient(recipientKey, nowBucket);
+            if (recipient < 0) {
+                return null;
+            }
+
+            int edge = findSlot(edgeKeys, edgeKey);
+            if (edgeKeys[edge] == edgeKey) {
+                int previous = edgeLastBucket[edge];
+                if (previous != nowBucket) {
+                    decrement(recipient, previous, nowBucket);
+                    increment(recipient, nowBucket);
+                    edgeLastBucket[edge] = nowBucket;
+                }
+                // sweep 전이라 남아 있던 만료 간선은 새 간선과 같이 1부터
+                edgeWeight[edge] = nowBucket - previous >= buckets ? 1 : edgeWeight[edge] + 1;
+                return new Activity(windowCount(recipient, nowBucket), edgeWeight[edge]);
+            }
+
+            if (edgeSize >= edgeCapacity * 3 / 4) {
+                if (lastSweepBucket == nowBucket) {
+                    return null;
+                }
+                sweep(nowBucket);
+                recipient = findOrInsertRecipient(recipientKey, nowBucket);
+                if (recipient < 0 || edgeSize >= edgeCapacity * 3 / 4) {
+                    return null;
+                }
+                edge = findSlot(edgeKeys, edgeKey);
+            }
+
+            edgeKeys[edge] = edgeKey;
+            edgeLastBucket[edge] = nowBucket;
+            edgeWeight[edge] = 1;
+            edgeSize++;
+            increment(recipient, nowBucket);
+            return new Activity(windowCount(recipient, nowBucket), 1);
+        }
+
+        private int findOrInsertRecipient(long recipientKey, int nowBucket) {
+            int slot = findSlot(recipientKeys, recipientKey);
+            if (recipientKeys[slot] == recipientKey) {
+                return slot;
+            }
+
+            if (recipientSize >= recipientCapacity * 3 / 4) {
+                if (lastSweepBucket == nowBucket) {
+                    return -1;
+                }
+                sweep(nowBucket);
+                if (recipientSize >= recipientCapacity * 3 / 4) {
+                    return -1;
+                }
+                slot = findSlot(recipientKeys, recipientKey);
+            }
+
+            // 삭제된 계좌가 남긴 버킷 값이 있을 수 있으므로 초기화
+            recipientKeys[slot] = recipientKey;
+            Arrays.fill(recipientCounts, slot * buckets, (slot + 1) * buckets, 0);
+            Arrays.fill(recipientBucketIds, slot * buckets, (slot + 1) * buckets, UNUSED_BUCKET);
+            recipientSize++;
+            return slot;
+        }
+
+        // linear probing: key가 있는 슬롯 또는 첫 빈 슬롯
+        private int findSlot(long[] keys, long key) {
+            int mask = keys.length - 1;
+            int slot = (int) key & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void increment(int recipient, int bucket) {
+            int index = recipient * buckets + Math.floorMod(bucket, buckets);
+            if (recipientBucketIds[index] != bucket) {
+                recipientBucketIds[index] = bucket;
+                recipientCounts[index] = 0;
+            }
+            recipientCounts[index]++;
+        }
+
+        private void decrement(int recipient, int bucket, int nowBucket) {
+            if (nowBucket - bucket >= buckets) {
+                return;
+            }
+            int index = recipient * buckets + Math.floorMod(bucket, buckets);
+            if (recipientBucketIds[index] == bucket && recipientCounts[index] > 0) {
+                recipientCounts[index]--;
+            }
+        }
+
+        private int windowCount(int recipient, int nowBucket) {
+            int count = 0;
+            int base = recipient * buckets;
+            for (int i = 0; i < buckets; i++) {
+                int bucket = recipientBucketIds[base + i];
+                if (nowBucket - bucket < buckets && bucket <= nowBucket) {
+                    count += recipientCounts[base + i];
+                }
+            }
+            return count;
+        }
+
+        // 만료 항목을 제자리에서 삭제 (backward-shift 삭제라 tombstone/추가 할당 없음)
+        void sweep(int nowBucket) {
+            int before = edgeSize;
+            lastSweepBucket = nowBucket;
+
+            for (int i = 0; i < edgeKeys.length; ) {
+                if (edgeKeys[i] != EMPTY && nowBucket - edgeLastBucket[i] >= buckets) {
+                    removeEdge(i);
+                } else {
+                    i++;
+                }
+            }
+
+            for (int i = 0; i < recipientKeys.length; ) {
+                if (recipientKeys[i] != EMPTY && windowCount(i, nowBucket) == 0) {
+                    removeRecipient(i);
+                } else {
+                    i++;
+                }
+            }
+
+            if (before != edgeSize) {
+                log.debug("Recipient graph segment swept: edges {} -> {}", before, edgeSize);
+            }
+        }
+
+        private void removeEdge(int slot) {
+            int mask = edgeKeys.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+
+            while (edgeKeys[next] != EMPTY) {
+                int home = (int) edgeKeys[next] & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    edgeKeys[hole] = edgeKeys[next];
+                    edgeLastBucket[hole] = edgeLastBucket[next];
+                    edgeWeight[hole] = edgeWeight[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+
+            edgeKeys[hole] = EMPTY;
+            edgeSize--;
+        }
+
+        private void removeRecipient(int slot) {
+            int mask = recipientKeys.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+
+            while (recipientKeys[next] != EMPTY) {
+                int home = (int) recipientKeys[next] & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    recipientKeys[hole] = recipientKeys[next];
+                    System.arraycopy(recipientCounts, next * buckets, recipientCounts, hole * buckets, buckets);
+                    System.arraycopy(recipientBucketIds, next * buckets, recipientBucketIds, hole * buckets, buckets);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+
+            recipientKeys[hole] = EMPTY;
+            recipientSize--;
+        }
+    }
+}
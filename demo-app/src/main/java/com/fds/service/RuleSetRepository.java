@@ -0,0 +1,92 @@
+package com.fds.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fds.dto.Rule;
+import com.fds.dto.RuleSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RuleSetRepository {
+
+    public static final String ACTIVE_RULE_SET = "active";
+
+    private final GoogleSheetsService googleSheetsService;
+    private final ObjectMapper objectMapper;
+
+    // AuthService/TransferService와 n8n 위험도 계산에서 사용하는 기본 임계값
+    @Value("${fds.rules.high-threshold:70}")
+    private int highThreshold;
+
+    @Value("${fds.rules.medium-threshold:40}")
+    private int mediumThreshold;
+
+    // 후보 룰셋 파일을 둘 디렉터리 (파일 이름은 이 디렉터리 기준으로만 해석)
+    @Value("${fds.rules.dir:rules}")
+    private String rulesDir;
+
+    // 현재 운영 중인 룰셋 (Google Sheets Rule_Set 시트)
+    // 조회 실패나 빈 시트를 빈 룰셋으로 평가하지 않도록 IOException으로 알림
+    public RuleSet loadActive() throws IOException {
+        List<Rule> rules = googleSheetsService.getRules();
+        if (rules.isEmpty()) {
+            throw new IOException("Rule_Set sheet returned no rules");
+        }
+        return new RuleSet(ACTIVE_RULE_SET, highThreshold, mediumThreshold, rules);
+    }
+
+    // 후보 룰셋 JSON 파일 ({"name", "high_threshold", "medium_threshold", "rules": [Rule_Set 컬럼명 그대로]})
+    // fileName은 fds.rules.dir 안의 파일 이름만 허용 (절대 경로, "..", 하위 디렉터리 거절)
+    // 파일이 없거나 JSON/rules 배열이 잘못되면 요청자에게 그대로 보여줄 수 있는 메시지의 IOException
+    public RuleSet loadFile(String fileName) throws IOException {
+        Path file = resolve(fileName);
+        if (!Files.isRegularFile(file)) {
+            throw new IOException("Rule set file not found: " + fileName);
+        }
+
+        RuleSet ruleSet;
+        try {
+            ruleSet = objectMapper.readValue(file.toFile(), RuleSet.class);
+        } catch (JsonProcessingException e) {
+            throw new IOException("Invalid rule set JSON in " + fileName + ": " + e.getOriginalMessage(), e);
+        }
+        if (ruleSet == null || ruleSet.rules() == null) {
+            throw new IOException("Rule set file " + fileName + " has no \"rules\" array");
+        }
+        if (ruleSet.rules().contains(null)) {
+            throw new IOException("Rule set file " + fileName + " has a null entry in \"rules\"");
+        }
+
+        String name = ruleSet.name() == null || ruleSet.name().isBlank() ? file.getFileName().toString() : ruleSet.name();
+        int high = ruleSet.highThreshold() > 0 ? ruleSet.highThreshold() : highThreshold;
+        int medium = ruleSet.mediumThreshold() > 0 ? ruleSet.mediumThreshold() : mediumThreshold;
+
+        log.info("Loaded rule set {} from {} ({} rules)", name, file, ruleSet.rules().size());
+        return new RuleSet(name, high, medium, ruleSet.rules());
+    }
+
+    private Path resolve(String fileName) throws IOException {
+        if (fileName == null || fileName.isBlank() || fileName.contains("..")
+                || fileName.contains("/") || fileName.contains("\\")) {
+            throw new IOException("Invalid rule set file name: " + fileName);
+        }
+
+        Path dir = Paths.get(rulesDir).toAbsolutePath().normalize();
+        Path file = dir.resolve(fileName).normalize();
+        if (!file.getParent().equals(dir)) {
+            throw new IOException("Invalid rule set file name: " + fileName);
+        }
+        return file;
+    }
+}
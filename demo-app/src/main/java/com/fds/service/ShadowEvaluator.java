@@ -0,0 +1,215 @@
+package com.fds.service;
+
+import com.fds.dto.FdsEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 후보 룰셋을 운영 룰셋과 나란히 실시간 이벤트에 적용해 판단 일치/불일치를 메트릭으로 집계
+// 요청 스레드와 실제 판단에는 영향을 주지 않으며, 큐가 가득 차면 평가를 버림
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShadowEvaluator {
+
+    private final RuleSetRepository ruleSetRepository;
+    private final GoogleSheetsService googleSheetsService;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fds.shadow.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fds.shadow.candidate-file:}")
+    private String candidateFile;
+
+    @Value("${fds.shadow.threads:2}")
+    private int threads;
+
+    @Value("${fds.shadow.queue-size:1000}")
+    private int queueSize;
+
+    @Value("${fds.shadow.refresh-interval:5m}")
+    private Duration refreshInterval;
+
+    private ThreadPoolExecutor shadowExecutor;
+    private Counter droppedCounter;
+
+    // 룰별 평가 시간 timer는 룰셋을 읽을 때 한 번만 등록
+    private record TimedRuleSet(CompiledRuleSet ruleSet, Timer[] ruleTimers) {}
+
+    // shadow 스레드에서만 갱신 (읽기 실패 시 이전 룰셋 유지)
+    private volatile TimedRuleSet activeRuleSet;
+    private volatile TimedRuleSet candidateRuleSet;
+    private volatile long loadedAt;
+
+    @PostConstruct
+    void init() {
+        droppedCounter = meterRegistry.counter("fds.shadow.dropped");
+        if (!enabled) {
+            return;
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        shadowExecutor = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "shadow-eval-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> droppedCounter.increment());
+
+        log.info("Shadow evaluation enabled (candidate={}, threads={}, queueSize={})", candidateFile, threads, queueSize);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (shadowExecutor != null) {
+            shadowExecutor.shutdownNow();
+        }
+    }
+
+    public void submit(FdsEvent event) {
+        if (shadowExecutor == null) {
+            return;
+        }
+        shadowExecutor.execute(() -> evaluate(event));
+    }
+
+    private void evaluate(FdsEvent event) {
+        try {
+            refreshRuleSetsIfStale();
+            TimedRuleSet active = activeRuleSet;
+            TimedRuleSet candidate = candidateRuleSet;
+            if (active == null || candidate == null) {
+                return;
+            }
+
+            Map<String, Object> fields = toFields(event);
+            int baseScore = googleSheetsService.getLastKnownScore(event.userId());
+
+            int activeScore = score(active, event.eventType(), fields, baseScore);
+            int candidateScore = score(candidate, event.eventType(), fields, baseScore);
+            String activeLevel = active.ruleSet().riskLevel(activeScore);
+            String candidateLevel = candidate.ruleSet().riskLevel(candidateScore);
+
+            boolean agree = activeLevel.equals(candidateLevel);
+            meterRegistry.counter("fds.shadow.decisions",
+                    "outcome", agree ? "agree" : "disagree",
+                    "event_type", event.eventType(),
+                    "active", activeLevel,
+                    "candidate", candidateLevel).increment();
+
+            if (!agree) {
+                log.info("SHADOW_DISAGREE userId={} eventType={} eventId={} active={}({}) candidate={}({})",
+                        event.userId(), event.eventType(), event.eventId(),
+                        activeLevel, activeScore, candidateLevel, candidateScore);
+            }
+        } catch (Exception e) {
+            log.warn("Shadow evaluation failed for event {}", event.eventId(), e);
+        }
+    }
+
+    // 룰별 평가 시간을 측정하면서 점수 계산
+    private int score(TimedRuleSet timed, String eventType, Map<String, Object> fields, int baseScore) {
+        CompiledRuleSet ruleSet = timed.ruleSet();
+        int score = baseScore;
+        for (int i = 0; i < ruleSet.ruleCount(); i++) {
+            long start = System.nanoTime();
+            boolean matched = ruleSet.matches(i, eventType, fields);
+            timed.ruleTimers()[i].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            if (matched) {
+                score += ruleSet.ruleScore(i);
+            }
+        }
+        return score;
+    }
+
+    // n8n webhook body와 같은 키로 변환 (tx_count는 n8n처럼 Redis에서 조회)
+    private Map<String, Object> toFields(FdsEvent event) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("ts", event.ts());
+        fields.put("event_type", event.eventType());
+        fields.put("event_id", event.eventId());
+        fields.put("user_id", event.userId());
+        fields.put("result", event.result());
+        fields.put("src_ip", event.srcIp());
+        fields.put("country", event.country());
+        fields.put("hour", event.hour());
+        fields.put("amount", event.amount());
+        fields.put("to_bank", event.toBank());
+        fields.put("to_account_id", event.toAccountId());
+        fields.put("avgAmount", event.avgAmount());
+        fields.put("ip_flags", event.ipFlags());
+        fields.put("ip_country", event.ipCountry());
+        fields.put("recipient_fan_in", event.recipientFanIn());
+        fields.put("recipient_sender_tx_count", event.recipientSenderTxCount());
+
+        try {
+            String txCount = redisTemplate.opsForValue().get("tx_count:" + event.userId());
+            fields.put("tx_count", txCount == null ? 0 : Integer.parseInt(txCount));
+        } catch (Exception e) {
+            fields.put("tx_count", 0);
+        }
+        return fields;
+    }
+
+    // 읽기에 실패한 룰셋은 이전 것을 그대로 두고 다음 refresh-interval에 다시 시도
+    private void refreshRuleSetsIfStale() {
+        long now = System.currentTimeMillis();
+        if (loadedAt != 0 && now - loadedAt < refreshInterval.toMillis()) {
+            return;
+        }
+
+        synchronized (this) {
+            if (loadedAt != 0 && now - loadedAt < refreshInterval.toMillis()) {
+                return;
+            }
+            loadedAt = now;
+
+            try {
+                activeRuleSet = timed(new CompiledRuleSet(ruleSetRepository.loadActive()));
+            } catch (IOException e) {
+                log.warn("Failed to refresh active rule set, keeping previous ({})",
+                        activeRuleSet != null ? activeRuleSet.ruleSet().name() : "none", e);
+            }
+
+            if (candidateFile != null && !candidateFile.isBlank()) {
+                try {
+                    candidateRuleSet = timed(new CompiledRuleSet(ruleSetRepository.loadFile(candidateFile)));
+                } catch (IOException e) {
+                    log.warn("Failed to refresh candidate rule set {}, keeping previous", candidateFile, e);
+                }
+            }
+        }
+    }
+
+    private TimedRuleSet timed(CompiledRuleSet ruleSet) {
+        Timer[] timers = new Timer[ruleSet.ruleCount()];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = meterRegistry.timer("fds.shadow.rule.latency",
+                    "rule_set", ruleSet.name(),
+                    "rule", ruleSet.ruleName(i));
+        }
+        return new TimedRuleSet(ruleSet, timers);
+    }
+}
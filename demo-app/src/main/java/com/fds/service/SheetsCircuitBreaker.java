@@ -0,0 +1,83 @@
+package com.fds.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SheetsCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    @Value("${fds.sheets.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${fds.sheets.breaker.open-duration:30s}")
+    private Duration openDuration;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("fds.sheets.breaker.state", state, s -> s.get().ordinal())
+                .description("0=CLOSED, 1=OPEN, 2=HALF_OPEN")
+                .register(meterRegistry);
+    }
+
+    // OPEN 상태에서 대기 시간이 지나면 한 요청만 HALF_OPEN 프로브로 통과
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && System.currentTimeMillis() - openedAt >= openDuration.toMillis()) {
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        State previous = state.getAndSet(State.CLOSED);
+        if (previous != State.CLOSED) {
+            log.info("SHEETS_BREAKER_CLOSED previous={}", previous);
+        }
+    }
+
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold)) {
+            openedAt = System.currentTimeMillis();
+            if (state.compareAndSet(current, State.OPEN)) {
+                log.warn("SHEETS_BREAKER_OPEN consecutiveFailures={} openFor={}", failures, openDuration);
+            }
+        }
+    }
+
+    // 결과 없이 끝난 호출(로컬 executor 거절 등): 실패로 세지 않고, HALF_OPEN 프로브였다면 다음 요청이 다시 프로브하도록 OPEN으로 되돌림
+    public void onAbandoned() {
+        if (state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+            log.info("SHEETS_BREAKER_PROBE_ABANDONED");
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+}
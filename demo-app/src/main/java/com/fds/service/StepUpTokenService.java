@@ -0,0 +1,185 @@
+package com.fds.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 추가 인증(/auth/verify) 성공 시 발급하는 단기 토큰
+// 형식: base64url("userId:amount:만료(epoch초):nonce") + "." + base64url(HMAC-SHA256)
+// 검증은 서명/만료/userId/금액 비교만으로 끝나고(저장소 조회 없음), 재사용은 사용된 nonce -> 만료 시각
+// 맵으로 막음 (만료된 nonce는 주기적으로 제거되므로 크기는 TTL 동안 사용된 토큰 수로 제한됨)
+// 사용된 nonce 맵은 인스턴스별이므로 여러 인스턴스에서는 같은 토큰을 인스턴스마다 한 번씩 쓸 수 있음
+// fds.step-up.redis-enabled=true이면 Redis SETNX(만료 = 토큰 만료)로 클러스터 전체에서 한 번만 허용
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StepUpTokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String REDIS_NONCE_PREFIX = "step_up_nonce:";
+
+    // HMAC-SHA256 키는 해시 출력 길이(32바이트) 이상이어야 함
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    // 여러 인스턴스에서 검증하려면 모든 인스턴스에 같은 값을 설정해야 함 (비어 있으면 기동 시 무작위 생성)
+    @Value("${fds.step-up.secret:}")
+    private String secret;
+
+    @Value("${fds.step-up.ttl:2m}")
+    private Duration ttl;
+
+    @Value("${fds.step-up.redis-enabled:false}")
+    private boolean redisEnabled;
+
+    private SecretKeySpec key;
+    private ThreadLocal<Mac> macs;
+
+    private final Map<Long, Long> usedNonces = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            secureRandom.nextBytes(keyBytes);
+            log.warn("fds.step-up.secret is not set, using a random key (tokens are valid on this instance only)");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < MIN_SECRET_BYTES) {
+                throw new IllegalStateException("fds.step-up.secret must be at least " + MIN_SECRET_BYTES
+                        + " bytes (got " + keyBytes.length + ")");
+            }
+        }
+
+        key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    public String issue(String userId, long amount) {
+        long expiresAt = System.currentTimeMillis() / 1000 + ttl.toSeconds();
+        long nonce = secureRandom.nextLong();
+
+        byte[] payload = (userId + ":" + amount + ":" + expiresAt + ":" + Long.toHexString(nonce))
+                .getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    public long ttlSeconds() {
+        return ttl.toSeconds();
+    }
+
+    // 서명, 만료, userId/금액 일치, 미사용 여부를 모두 만족해야 true (성공 시 nonce를 사용 처리)
+    public boolean verify(String token, String userId, long amount) {
+        if (token == null || userId == null) {
+            return false;
+        }
+
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            log.warn("STEP_UP_TOKEN_INVALID userId={} reason=BAD_SIGNATURE", userId);
+            return false;
+        }
+
+        // userId에 ':'가 들어갈 수 있으므로 뒤에서부터 분리
+        String claims = new String(payload, StandardCharsets.UTF_8);
+        int nonceSep = claims.lastIndexOf(':');
+        int expirySep = claims.lastIndexOf(':', nonceSep - 1);
+        int amountSep = claims.lastIndexOf(':', expirySep - 1);
+        if (amountSep <= 0) {
+            return false;
+        }
+
+        try {
+            String tokenUserId = claims.substring(0, amountSep);
+            long tokenAmount = Long.parseLong(claims.substring(amountSep + 1, expirySep));
+            long expiresAt = Long.parseLong(claims.substring(expirySep + 1, nonceSep));
+            long nonce = Long.parseUnsignedLong(claims.substring(nonceSep + 1), 16);
+
+            if (!tokenUserId.equals(userId) || tokenAmount != amount) {
+                log.warn("STEP_UP_TOKEN_INVALID userId={} reason=BINDING_MISMATCH", userId);
+                return false;
+            }
+            if (System.currentTimeMillis() / 1000 > expiresAt) {
+                log.warn("STEP_UP_TOKEN_INVALID userId={} reason=EXPIRED", userId);
+                return false;
+            }
+            if (!markUsed(nonce, expiresAt)) {
+                log.warn("STEP_UP_TOKEN_INVALID userId={} reason=REPLAYED", userId);
+                return false;
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // nonce를 처음 사용하면 true
+    // Redis 장애 시에는 인스턴스 맵으로 대체 (재사용 방지를 끄지 않음)
+    private boolean markUsed(long nonce, long expiresAt) {
+        if (redisEnabled) {
+            try {
+                long remaining = Math.max(1, expiresAt - System.currentTimeMillis() / 1000);
+                Boolean first = redisTemplate.opsForValue().setIfAbsent(
+                        REDIS_NONCE_PREFIX + Long.toHexString(nonce), "1", Duration.ofSeconds(remaining));
+                if (first != null) {
+                    return first;
+                }
+            } catch (Exception e) {
+                log.error("Failed to record step-up nonce in Redis, using local replay set", e);
+            }
+        }
+        return usedNonces.putIfAbsent(nonce, expiresAt) == null;
+    }
+
+    @Scheduled(fixedDelayString = "${fds.step-up.sweep-interval:60000}")
+    public void sweepExpiredNonces() {
+        long now = System.currentTimeMillis() / 1000;
+        usedNonces.values().removeIf(expiresAt -> expiresAt < now);
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+}
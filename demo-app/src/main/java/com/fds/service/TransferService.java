@@ -3,23 +3,36 @@ package com.fds.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fds.dto.FdsEvent;
+import com.fds.dto.TransferRequest;
+import com.fds.dto.UserRiskState;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -33,48 +46,127 @@ public class TransferService {
     private static final String RESULT_FORCE_LOGOUT = "FORCE_LOGOUT";
     private static final String SAMPLE_TO_BANK = "Woori";
     private static final String SAMPLE_TO_ACCOUNT_ID = "110-***-1234";
-    private static final Map<String, String> COUNTRY_IP_MAP = Map.of(
-            "KR", "203.0.113.10",
-            "US", "198.51.100.23",
-            "JP", "192.0.2.44",
-            "SG", "203.0.113.77",
-            "GB", "198.51.100.88"
-    );
+    private static final Recipient SAMPLE_RECIPIENT = new Recipient(SAMPLE_TO_BANK, SAMPLE_TO_ACCOUNT_ID);
+    private static final String TRANSFER_LOG_MARKER = "\"eventType\":\"TRANSFER\"";
+    private static final String UNKNOWN_SAMPLE_IP = "203.0.113.200";
 
     private final EventSender eventSender;
     private final StringRedisTemplate redisTemplate;
     private final GoogleSheetsService googleSheetsService;
     private final ObjectMapper objectMapper;
+    private final RecipientGraph recipientGraph;
+    private final UserBaselineStore baselineStore;
+    private final FdsEventFactory eventFactory;
+    private final EventTracing eventTracing;
+    private final UserSerialExecutor userSerialExecutor;
+    private final EventRollup eventRollup;
+    private final IpIntelligence ipIntelligence;
+    private final ClientIpResolver clientIpResolver;
     private static final String LOG_DIR = "logs";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    @Value("${fds.transfer.batch.parallelism:8}")
+    private int batchParallelism;
+
+    private ExecutorService batchExecutor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(batchParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "transfer-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
     public double getTodayAverageAmount(String userId) {
-        String today = LocalDate.now().format(DATE_FORMATTER);
-        String logFileName = LOG_DIR + "/fds-" + today + ".json";
+        return getAverageAmounts(Collections.singleton(userId)).getOrDefault(userId, 0.0);
+    }
+
+    // 당일 로그 파일을 한 번만 읽어 여러 사용자의 평균 송금액 계산
+    // 당일 기록이 없는 사용자는 최근 7일 중 가장 가까운 날의 평균을 사용
+    // 한 번 계산된 사용자는 UserBaselineStore에 seed 되어 이후에는 로그를 다시 읽지 않음
+    public Map<String, Double> getAverageAmounts(Set<String> userIds) {
+        Map<String, Double> averages = new HashMap<>();
+        Set<String> remaining = new HashSet<>();
+
+        for (String userId : userIds) {
+            UserBaselineStore.Baseline baseline = baselineStore.getToday(userId);
+            if (baseline != null) {
+                averages.put(userId, baseline.average());
+            } else {
+                remaining.add(userId);
+            }
+        }
+
+        for (int daysAgo = 0; daysAgo <= 7 && !remaining.isEmpty(); daysAgo++) {
+            String targetDate = LocalDate.now().minusDays(daysAgo).format(DATE_FORMATTER);
+            String logFileName = LOG_DIR + "/fds-" + targetDate + ".json";
+
+            File logFile = new File(logFileName);
+            if (!logFile.exists()) {
+                log.debug("Log file not found for {} days ago: {}", daysAgo, logFileName);
+                continue;
+            }
+
+            Map<String, double[]> totals = scanTransferAmounts(logFile, remaining);
+            for (Map.Entry<String, double[]> entry : totals.entrySet()) {
+                double[] total = entry.getValue();
+                double average = total[0] / total[1];
+                averages.put(entry.getKey(), average);
+                remaining.remove(entry.getKey());
+
+                if (daysAgo == 0) {
+                    baselineStore.seed(entry.getKey(), total[0], (long) total[1], 0.0, (long) total[2]);
+                } else {
+                    baselineStore.seed(entry.getKey(), 0.0, 0, average, 0L);
+                }
+
+                log.info("User {} average transfer amount from {} ({} days ago): {} (based on {} transfers)",
+                        entry.getKey(), targetDate, daysAgo, average, (long) total[1]);
+            }
+        }
 
-        File logFile = new File(logFileName);
-        if (!logFile.exists()) {
-            log.warn("Log file not found: {}", logFileName);
-            return getRecentAverageAmount(userId);
+        for (String userId : remaining) {
+            log.info("No transfer records found for user {} in recent 7 days", userId);
+            averages.put(userId, 0.0);
+            baselineStore.seed(userId, 0.0, 0, 0.0, 0L);
         }
+        return averages;
+    }
 
-        List<Double> amounts = new ArrayList<>();
+    // userId -> {합계, 건수, 마지막 송금 시각(epoch millis)}
+    private Map<String, double[]> scanTransferAmounts(File logFile, Set<String> userIds) {
+        Map<String, double[]> totals = new HashMap<>();
+        long start = System.nanoTime();
 
         try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
             String line;
             while ((line = reader.readLine()) != null) {
+                // 로그인 등 송금 외 라인은 JSON 트리를 만들기 전에 제외
+                if (!line.contains(TRANSFER_LOG_MARKER)) {
+                    continue;
+                }
                 try {
                     JsonNode node = objectMapper.readTree(line);
+                    String userId = node.path("userId").asText();
 
-                    if ("TRANSFER".equals(node.path("eventType").asText()) &&
-                            userId.equals(node.path("userId").asText())) {
-
+                    if ("TRANSFER".equals(node.path("eventType").asText()) && userIds.contains(userId)) {
                         String amountStr = node.path("amount").asText();
-                        log.info("Found amount string: {}", amountStr);
                         if (!amountStr.isEmpty()) {
                             double amount = Double.parseDouble(amountStr);
-                            log.info("Parsed amount: {}", amount);
-                            amounts.add(amount);
+                            long eventMillis = OffsetDateTime.parse(node.path("timestamp").asText())
+                                    .toInstant().toEpochMilli();
+                            double[] total = totals.computeIfAbsent(userId, k -> new double[3]);
+                            total[0] += amount;
+                            total[1]++;
+                            total[2] = Math.max(total[2], eventMillis);
                         }
                     }
                 } catch (Exception e) {
@@ -82,148 +174,233 @@ public class TransferService {
                 }
             }
         } catch (Exception e) {
-            log.error("Error reading log file: {}", logFileName, e);
-            return getRecentAverageAmount(userId);
-        }
-
-        if (amounts.isEmpty()) {
-            log.info("No transfer records found for user {} on {}, checking recent days", userId, today);
-            return getRecentAverageAmount(userId);
+            log.error("Error reading log file: {}", logFile, e);
+        } finally {
+            eventTracing.recordStage("log_scan", start);
         }
+        return totals;
+    }
 
-        log.info("All amounts for {}: {}", userId, amounts);
+    // toBank/toAccountId가 없으면 샘플 수취 계좌로 처리
+    public Map<String, Object> processTransfer(String userId, Long amount, String country, String toBank, String toAccountId,
+                                               Boolean verified, HttpServletRequest request, double avgAmount) {
+        ZonedDateTime now = ZonedDateTime.now();
+        String normalizedCountry = normalizeCountry(country);
+        String srcIp = getClientIp(request, normalizedCountry);
+        Recipient recipient = recipientOf(toBank, toAccountId);
 
-        double average = amounts.stream()
-                .mapToDouble(Double::doubleValue)
-                .average()
-                .orElse(0.0);
+        // 같은 사용자의 동시 송금은 카운트 증가부터 판단(차단)까지 순서대로 처리
+        return userSerialExecutor.run(userId, () -> {
+            // Redis 카운트 증가
+            incrementTransferCount(userId);
 
-        log.info("User {} today's average transfer amount: {} (based on {} transfers)",
-                userId, average, amounts.size());
+            // score와 blocked 상태를 한 번의 Sheets 조회로 가져옴
+            UserRiskState riskState = googleSheetsService.getRiskState(userId);
 
-        return average;
+            return decideTransfer(userId, amount, normalizedCountry, srcIp, recipient, verified, now, avgAmount, riskState);
+        });
     }
 
-    private double getRecentAverageAmount(String userId) {
-        // 최근 7일 동안 데이터 확인
-        for (int daysAgo = 1; daysAgo <= 7; daysAgo++) {
-            String targetDate = LocalDate.now().minusDays(daysAgo).format(DATE_FORMATTER);
-            String logFileName = LOG_DIR + "/fds-" + targetDate + ".json";
+    // 여러 건의 송금을 사용자별로 묶어 처리하고 항목별 결과를 완료되는 순서대로 onDecision에 전달
+    // 위험도 컨텍스트(Sheets 조회, 평균 금액)는 사용자 수와 무관하게 한 번만 로드하고, Redis 증가는 파이프라인으로 전송
+    // 같은 사용자의 항목은 순서대로, 서로 다른 사용자는 병렬로 평가
+    // 위험도 스냅샷은 mailbox 밖에서 한 번 읽으므로, 각 항목은 mailbox 안에서 스냅샷 이후 이 인스턴스가 내린 차단
+    // (같은 사용자의 동시 단건 송금 등)을 다시 확인해 반영. score는 n8n이 비동기로 갱신하므로 단건과 같이 조회 시점 값 사용
+    public void processTransferBatch(List<TransferRequest> requests, HttpServletRequest request,
+                                     Consumer<Map<String, Object>> onDecision) {
+        ZonedDateTime now = ZonedDateTime.now();
 
-            File logFile = new File(logFileName);
-            if (!logFile.exists()) {
-                log.debug("Log file not found for {} days ago: {}", daysAgo, logFileName);
+        Map<String, List<Integer>> indexesByUser = new LinkedHashMap<>();
+        Map<String, String> srcIpByCountry = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest item = requests.get(i);
+            if (item.userId() == null || item.amount() == null) {
+                onDecision.accept(Map.of(
+                        "index", i,
+                        "status", "INVALID",
+                        "message", "userId와 amount는 필수입니다."
+                ));
                 continue;
             }
+            indexesByUser.computeIfAbsent(item.userId(), k -> new ArrayList<>()).add(i);
+            String normalizedCountry = normalizeCountry(item.country());
+            srcIpByCountry.computeIfAbsent(normalizedCountry, c -> getClientIp(request, c));
+        }
 
-            List<Double> amounts = new ArrayList<>();
-
-            try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    try {
-                        JsonNode node = objectMapper.readTree(line);
-
-                        if ("TRANSFER".equals(node.path("eventType").asText()) &&
-                                userId.equals(node.path("userId").asText())) {
+        if (indexesByUser.isEmpty()) {
+            return;
+        }
 
-                            String amountStr = node.path("amount").asText();
-                            if (!amountStr.isEmpty()) {
-                                double amount = Double.parseDouble(amountStr);
-                                amounts.add(amount);
-                            }
-                        }
-                    } catch (Exception e) {
-                        log.debug("Failed to parse log line: {}", line);
+        Set<String> userIds = indexesByUser.keySet();
+        incrementTransferCounts(indexesByUser);
+        long snapshotMillis = System.currentTimeMillis();
+        Map<String, UserRiskState> riskStates = googleSheetsService.getRiskStates(userIds);
+        Map<String, Double> avgAmounts = getAverageAmounts(userIds);
+
+        log.info("TRANSFER_BATCH size={} users={}", requests.size(), userIds.size());
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(userIds.size());
+        for (Map.Entry<String, List<Integer>> entry : indexesByUser.entrySet()) {
+            String userId = entry.getKey();
+            tasks.add(CompletableFuture.runAsync(() -> {
+                UserRiskState riskState = riskStates.get(userId);
+                double avgAmount = avgAmounts.getOrDefault(userId, 0.0);
+
+                for (int index : entry.getValue()) {
+                    TransferRequest item = requests.get(index);
+                    String normalizedCountry = normalizeCountry(item.country());
+                    Recipient recipient = recipientOf(item.toBank(), item.toAccountId());
+
+                    UserRiskState currentState = riskState;
+                    Map<String, Object> decision = userSerialExecutor.run(userId, () -> decideTransfer(userId,
+                            item.amount(), normalizedCountry, srcIpByCountry.get(normalizedCountry), recipient, false,
+                            now, avgAmount, currentRiskState(userId, currentState, snapshotMillis)));
+
+                    // 이번 배치에서 차단된 사용자의 나머지 항목은 차단 상태로 평가
+                    if (RESULT_FORCE_LOGOUT.equals(decision.get("status"))) {
+                        riskState = new UserRiskState(riskState.score(), true);
                     }
-                }
-            } catch (Exception e) {
-                log.error("Error reading log file: {}", logFileName, e);
-                continue;
-            }
-
-            if (!amounts.isEmpty()) {
-                double average = amounts.stream()
-                        .mapToDouble(Double::doubleValue)
-                        .average()
-                        .orElse(0.0);
-
-                log.info("User {} recent average transfer amount from {} ({} days ago): {} (based on {} transfers)",
-                        userId, targetDate, daysAgo, average, amounts.size());
 
-                return average;
-            }
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("index", index);
+                    result.put("userId", userId);
+                    result.putAll(decision);
+                    onDecision.accept(result);
+                }
+            }, batchExecutor));
         }
 
-        log.info("No transfer records found for user {} in recent 7 days", userId);
-        return 0.0;
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
     }
 
-    public Map<String, Object> processTransfer(String userId, Long amount, String country, Boolean verified, HttpServletRequest request, double avgAmount) {
-        ZonedDateTime now = ZonedDateTime.now();
-        String normalizedCountry = normalizeCountry(country);
-        String srcIp = getClientIp(request, normalizedCountry);
-
-        // Redis 카운트 증가
-        incrementTransferCount(userId);
+    // 스냅샷 이후 내려진 차단을 반영 (mailbox 안에서 호출)
+    private UserRiskState currentRiskState(String userId, UserRiskState snapshot, long snapshotMillis) {
+        if (!snapshot.blocked() && googleSheetsService.isBlockedSince(userId, snapshotMillis)) {
+            return new UserRiskState(snapshot.score(), true);
+        }
+        return snapshot;
+    }
 
-        // 1. Blocked 상태 체크
-        if (googleSheetsService.isUserBlocked(userId)) {
+    private Map<String, Object> decideTransfer(String userId, Long amount, String normalizedCountry, String srcIp,
+                                               Recipient recipient, Boolean verified, ZonedDateTime now,
+                                               double avgAmount, UserRiskState riskState) {
+        // 1. Blocked 상태 체크 (차단을 결정했지만 아직 Sheets에 쓰지 못한 경우 포함)
+        if (riskState.blocked() || googleSheetsService.isBlockPending(userId)) {
             log.warn("TRANSFER_BLOCKED userId={} amount={} reason=BLOCKED_IN_SHEETS", userId, amount);
-            return createForceLogoutResponse(amount, "계정이 차단되었습니다.");
+            eventRollup.record("TRANSFER", normalizedCountry, now, "UNKNOWN", "BLOCKED", amount);
+            return createForceLogoutResponse(amount, recipient, "계정이 차단되었습니다.");
         }
 
         // 2. Risk Level 체크 및 처리
-        String riskLevel = evaluateRiskLevel(userId, verified, amount);
+        String riskLevel = evaluateRiskLevel(userId, verified, amount, riskState.score());
+        String scoreLevel = calculateRiskLevel(riskState.score());
 
         if (RESULT_FORCE_LOGOUT.equals(riskLevel)) {
-            return createForceLogoutResponse(amount, "의심스러운 활동이 감지되어 자동 로그아웃됩니다.");
+            eventRollup.record("TRANSFER", normalizedCountry, now, scoreLevel, RESULT_FORCE_LOGOUT, amount);
+            return createForceLogoutResponse(amount, recipient, "의심스러운 활동이 감지되어 자동 로그아웃됩니다.");
         }
 
         if (RESULT_VERIFICATION_REQUIRED.equals(riskLevel)) {
-            return createVerificationRequiredResponse(amount);
+            eventRollup.record("TRANSFER", normalizedCountry, now, scoreLevel, RESULT_VERIFICATION_REQUIRED, amount);
+            return createVerificationRequiredResponse(amount, recipient);
         }
 
         // 3. 정상 처리
-        sendTransferEvent(userId, amount, normalizedCountry, srcIp, now, avgAmount);
+        // 수취 계좌 fan-in 갱신 (임계값 도달 시 MULE_SUSPECTED 경고), 결과는 n8n이 룰로 평가하도록 이벤트에 포함
+        RecipientGraph.Activity activity = recipientGraph.recordTransfer(userId, recipient.bank(), recipient.accountId());
+        FdsEvent event = sendTransferEvent(userId, amount, normalizedCountry, srcIp, recipient, activity, now, avgAmount);
+
+        // 송금 성공 시에만 ELK 로그 (집계는 항상, 원본 로그는 샘플링 비율만큼)
+        eventRollup.record("TRANSFER", normalizedCountry, now, scoreLevel, RESULT_SUCCESS, amount);
+        if (eventRollup.sampleRaw("TRANSFER")) {
+            try {
+                MDC.put("eventType", "TRANSFER");
+                MDC.put("userId", userId);
+                MDC.put("amount", String.valueOf(amount));
+                MDC.put("country", normalizedCountry);
+                MDC.put("srcIp", srcIp);
+                if (event.ipFlags() != null) {
+                    MDC.put("ipFlags", event.ipFlags());
+                }
+                if (event.ipCountry() != null) {
+                    MDC.put("ipCountry", event.ipCountry());
+                }
+                MDC.put("riskLevel", riskLevel);
+                MDC.put("toBank", recipient.bank());
+                MDC.put("timestamp", now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
 
-        // 송금 성공 시에만 ELK 로그
-        try {
-            MDC.put("eventType", "TRANSFER");
-            MDC.put("userId", userId);
-            MDC.put("amount", String.valueOf(amount));
-            MDC.put("country", normalizedCountry);
-            MDC.put("srcIp", srcIp);
-            MDC.put("riskLevel", riskLevel);
-            MDC.put("toBank", SAMPLE_TO_BANK);
-            MDC.put("timestamp", now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
-
-            elkLog.info("TRANSFER_SUCCESS");
-        } finally {
-            MDC.clear();
+                elkLog.info("TRANSFER_SUCCESS");
+            } finally {
+                MDC.clear();
+            }
         }
 
+        // 다음 평균 금액 계산에 반영 (로그에 기록된 송금과 같은 기준)
+        baselineStore.recordTransfer(userId, amount, now);
+
         return Map.of(
                 "status", RESULT_SUCCESS,
                 "message", "송금이 성공적으로 처리되었습니다.",
                 "amount", amount,
-                "toBank", SAMPLE_TO_BANK
+                "toBank", recipient.bank()
         );
     }
 
     private void incrementTransferCount(String userId) {
         String redisKey = "tx_count:" + userId;
+        long start = System.nanoTime();
         Long txCount = redisTemplate.opsForValue().increment(redisKey);
+        eventTracing.recordStage("redis_incr", start);
 
         if (txCount != null && txCount == 1) {
             redisTemplate.expire(redisKey, Duration.ofMinutes(10));
             log.info("Redis key created: {} with TTL 10 minutes", redisKey);
         }
-        log.info("User {} transfer count in 10min: {}", userId, txCount);
+        log.debug("User {} transfer count in 10min: {}", userId, txCount);
+    }
+
+    // 배치 항목별 INCR을 한 번의 파이프라인으로 전송 (실패 시 로그만 남기고 계속 처리)
+    private void incrementTransferCounts(Map<String, List<Integer>> indexesByUser) {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> entry : indexesByUser.entrySet()) {
+            for (int ignored : entry.getValue()) {
+                keys.add("tx_count:" + entry.getKey());
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<Object> counts = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.stringCommands().incr(key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+
+            List<String> createdKeys = new ArrayList<>();
+            for (int i = 0; i < counts.size(); i++) {
+                if (Long.valueOf(1L).equals(counts.get(i))) {
+                    createdKeys.add(keys.get(i));
+                }
+            }
+
+            if (!createdKeys.isEmpty()) {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String key : createdKeys) {
+                        connection.keyCommands().expire(key.getBytes(StandardCharsets.UTF_8), Duration.ofMinutes(10).toSeconds());
+                    }
+                    return null;
+                });
+            }
+            log.info("Redis transfer counts incremented for {} transfers ({} keys created)", keys.size(), createdKeys.size());
+        } catch (Exception e) {
+            log.error("Failed to increment transfer counts for batch of {} transfers", keys.size(), e);
+        } finally {
+            eventTracing.recordStage("redis_incr", start);
+        }
     }
 
-    private String evaluateRiskLevel(String userId, Boolean verified, Long amount) {
-        int score = googleSheetsService.getCurrentTotalScore(userId);
+    private String evaluateRiskLevel(String userId, Boolean verified, Long amount, int score) {
         String riskLevel = calculateRiskLevel(score);
 
         if (Boolean.TRUE.equals(verified)) {
@@ -263,58 +440,53 @@ public class TransferService {
         }
     }
 
-    private void sendTransferEvent(String userId, Long amount, String country, String srcIp, ZonedDateTime now, double avgAmount) {
-        FdsEvent event = new FdsEvent(
-                now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME),
-                "TRANSFER",
-                UUID.randomUUID().toString(),
-                userId,
-                RESULT_SUCCESS,
-                srcIp,
-                country,
-                now.getHour(),
-                amount,
-                SAMPLE_TO_BANK,
-                SAMPLE_TO_ACCOUNT_ID,
-                avgAmount
-        );
+    private FdsEvent sendTransferEvent(String userId, Long amount, String country, String srcIp, Recipient recipient,
+                                       RecipientGraph.Activity activity, ZonedDateTime now, double avgAmount) {
+        FdsEvent event = eventFactory.create(now, "TRANSFER", userId, RESULT_SUCCESS, srcIp, country,
+                amount, recipient.bank(), recipient.accountId(), avgAmount, activity);
         eventSender.send(event);
+        return event;
     }
 
-    private Map<String, Object> createForceLogoutResponse(Long amount, String message) {
+    private Map<String, Object> createForceLogoutResponse(Long amount, Recipient recipient, String message) {
         return Map.of(
                 "status", RESULT_FORCE_LOGOUT,
                 "message", message,
                 "amount", amount,
-                "toBank", SAMPLE_TO_BANK
+                "toBank", recipient.bank()
         );
     }
 
-    private Map<String, Object> createVerificationRequiredResponse(Long amount) {
+    private Map<String, Object> createVerificationRequiredResponse(Long amount, Recipient recipient) {
         return Map.of(
                 "status", RESULT_VERIFICATION_REQUIRED,
                 "message", "보안 확인이 필요합니다. 추가 인증을 완료해주세요.",
                 "amount", amount,
-                "toBank", SAMPLE_TO_BANK
+                "toBank", recipient.bank()
         );
     }
 
-    private String normalizeCountry(String country) {
-        if (country == null || country.isBlank()) {
-            return "UNKNOWN";
+    private record Recipient(String bank, String accountId) {}
+
+    private static Recipient recipientOf(String toBank, String toAccountId) {
+        if (toBank == null || toBank.isBlank() || toAccountId == null || toAccountId.isBlank()) {
+            return SAMPLE_RECIPIENT;
         }
-        return country.trim().toUpperCase(Locale.ROOT);
+        return new Recipient(toBank, toAccountId);
     }
 
-    private String getClientIp(HttpServletRequest request, String country) {
-        String ip = request.getHeader("X-Forwarded-For");
+    private String normalizeCountry(String country) {
+        return CountryCodes.normalize(country);
+    }
 
-        if (ip == null || ip.isEmpty()) {
-            ip = request.getRemoteAddr();
-        }
+    // X-Forwarded-For는 신뢰 프록시를 거친 hop만 사용 (RateLimitFilter와 같은 기준)
+    private String getClientIp(HttpServletRequest request, String country) {
+        String ip = clientIpResolver.resolve(request);
 
+        // 로컬 테스트: country.csv의 국가 대역 IP를 사용하고, 대역이 없는 국가는 어느 대역에도 없는 샘플 IP
         if ("0:0:0:0:0:0:0:1".equals(ip) || "127.0.0.1".equals(ip)) {
-            ip = COUNTRY_IP_MAP.getOrDefault(country, "203.0.113.200");
+            String sampleIp = ipIntelligence.sampleIp(country);
+            ip = sampleIp != null ? sampleIp : UNKNOWN_SAMPLE_IP;
         }
 
         return ip;
@@ -0,0 +1,223 @@
+package com.fds.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// 사용자별 당일 송금 합계/건수를 메모리에 유지해 평균 금액 계산 시 로그 재스캔을 피함
+// 처음 조회되는 사용자는 TransferService가 로그를 스캔해 seed 하고, 이후 성공한 송금마다 갱신
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserBaselineStore implements CheckpointParticipant {
+
+    private static final byte RECORD_TYPE = 2;
+    private static final String LOG_DIR = "logs";
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // fallbackAverage: 당일 기록이 없을 때 사용하는 최근 7일 중 가장 가까운 날의 평균
+    public record Baseline(LocalDate day, double sum, long count, double fallbackAverage, long lastEventMillis) {
+
+        public double average() {
+            return count > 0 ? sum / count : fallbackAverage;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    // seed 전에 기록된 송금 {eventMillis, amount} (로그 스캔 도중 들어온 송금이 빠지지 않도록 seed 때 합침)
+    // 사용자별 변경은 baselines.compute 안에서만 하므로 seed/recordTransfer와 순서가 보장됨
+    private final Map<String, List<long[]>> pendingTransfers = new ConcurrentHashMap<>();
+
+    // 오늘 날짜의 baseline이 없으면 null (로그 스캔으로 seed 필요)
+    public Baseline getToday(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        Baseline baseline = baselines.get(userId);
+        return baseline != null && baseline.day().equals(LocalDate.now()) ? baseline : null;
+    }
+
+    // lastEventMillis: 스캔한 로그 중 이 사용자의 마지막 송금 시각 (없으면 0)
+    // 재생과 seed 전 송금 합산은 이 시각 이후의 송금만 더함
+    public void seed(String userId, double sum, long count, double fallbackAverage, long lastEventMillis) {
+        if (userId == null) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        baselines.compute(userId, (key, existing) -> {
+            Baseline baseline = new Baseline(today, sum, count, fallbackAverage, lastEventMillis);
+            List<long[]> pending = pendingTransfers.remove(key);
+            if (pending != null) {
+                for (long[] transfer : pending) {
+                    if (transfer[0] > baseline.lastEventMillis() && dayOf(transfer[0]).equals(today)) {
+                        baseline = add(baseline, transfer[1], transfer[0]);
+                    }
+                }
+            }
+            return baseline;
+        });
+        dirty.add(userId);
+    }
+
+    public void recordTransfer(String userId, long amount, ZonedDateTime at) {
+        long eventMillis = at.toInstant().toEpochMilli();
+
+        baselines.compute(userId, (key, baseline) -> {
+            if (baseline == null) {
+                // 아직 seed 되지 않은 사용자: 스캔 결과와 합칠 때까지 보관
+                pendingTransfers.computeIfAbsent(key, k -> new ArrayList<>(2)).add(new long[]{eventMillis, amount});
+                return null;
+            }
+            return add(baseline, amount, eventMillis);
+        });
+        dirty.add(userId);
+    }
+
+    private static Baseline add(Baseline baseline, long amount, long eventMillis) {
+        LocalDate day = dayOf(eventMillis);
+        if (baseline.day().equals(day)) {
+            return new Baseline(day, baseline.sum() + amount, baseline.count() + 1,
+                    baseline.fallbackAverage(), Math.max(baseline.lastEventMillis(), eventMillis));
+        }
+        // 날짜가 바뀌면 전날 평균을 fallback으로 두고 새로 시작
+        return new Baseline(day, amount, 1, baseline.average(), eventMillis);
+    }
+
+    private static LocalDate dayOf(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    @Override
+    public byte recordType() {
+        return RECORD_TYPE;
+    }
+
+    @Override
+    public void writeRecords(boolean full, Consumer<byte[]> sink) throws IOException {
+        // dirty 표시를 먼저 지우고 값을 읽어야 기록 도중의 갱신이 다음 체크포인트로 넘어감
+        Iterable<String> userIds;
+        if (full) {
+            dirty.clear();
+            userIds = baselines.keySet();
+        } else {
+            userIds = drainDirty();
+        }
+
+        LocalDate today = LocalDate.now();
+        for (String userId : userIds) {
+            Baseline baseline = baselines.get(userId);
+            if (baseline == null || !baseline.day().equals(today)) {
+                continue;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            CheckpointParticipant.writeString(out, userId);
+            out.writeLong(baseline.day().toEpochDay());
+            out.writeDouble(baseline.sum());
+            out.writeLong(baseline.count());
+            out.writeDouble(baseline.fallbackAverage());
+            out.writeLong(baseline.lastEventMillis());
+            sink.accept(bytes.toByteArray());
+        }
+    }
+
+    @Override
+    public void readRecord(ByteBuffer record) {
+        String userId = CheckpointParticipant.readString(record);
+        Baseline baseline = new Baseline(LocalDate.ofEpochDay(record.getLong()), record.getDouble(),
+                record.getLong(), record.getDouble(), record.getLong());
+
+        // 같은 사용자의 레코드가 여러 번 append 되어 있으면 마지막 것이 최신
+        if (baseline.day().equals(LocalDate.now())) {
+            baselines.put(userId, baseline);
+        }
+    }
+
+    // 체크포인트 이후에 기록된 당일 송금을 로그에서 다시 반영
+    // 체크포인트 시각 대신 사용자별 lastEventMillis 이후의 이벤트만 더하므로
+    // 체크포인트에 이미 포함된 송금이나 체크포인트 직전에 시작된 송금도 정확히 한 번만 반영됨
+    @Override
+    public void replaySince(long checkpointEpochMillis) {
+        if (baselines.isEmpty()) {
+            return;
+        }
+
+        File logFile = new File(LOG_DIR + "/fds-" + LocalDate.now().format(DATE_FORMATTER) + ".json");
+        if (!logFile.exists()) {
+            return;
+        }
+
+        int replayed = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(logFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (!"TRANSFER".equals(node.path("eventType").asText())) {
+                        continue;
+                    }
+
+                    String userId = node.path("userId").asText();
+                    Baseline baseline = baselines.get(userId);
+                    String amount = node.path("amount").asText();
+                    if (baseline == null || amount.isEmpty()) {
+                        continue;
+                    }
+
+                    ZonedDateTime at = OffsetDateTime.parse(node.path("timestamp").asText()).toZonedDateTime();
+                    if (at.toInstant().toEpochMilli() > baseline.lastEventMillis()) {
+                        recordTransfer(userId, Long.parseLong(amount), at);
+                        replayed++;
+                    }
+                } catch (Exception e) {
+                    log.debug("Failed to parse log line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error replaying log file: {}", logFile, e);
+        }
+
+        log.info("Replayed {} transfers after checkpoint {} into {} user baselines",
+                replayed, checkpointEpochMillis, baselines.size());
+    }
+
+    private Set<String> drainDirty() {
+        Set<String> drained = new HashSet<>();
+        Iterator<String> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,80 @@
+package com.fds.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// 사용자별 mailbox: 같은 사용자의 작업은 도착 순서대로 하나씩, 다른 사용자의 작업은 완전히 병렬로 실행
+// 사용자마다 마지막 작업의 완료 future(tail)만 보관하고, 새 작업은 tail을 자신으로 바꾼 뒤 이전 작업이 끝나길 기다림
+// 별도 스레드 없이 호출한 스레드에서 실행하며, 대기 중인 작업이 없는 사용자의 항목은 즉시 제거됨
+// 이전 작업이 max-wait 안에 끝나지 않으면 순서 보장을 포기하고 실행 (요청 스레드가 무한정 묶이지 않도록)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSerialExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fds.user-serial.max-wait:5s}")
+    private Duration maxWait;
+
+    private final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    private Timer waitTimer;
+    private Counter waitTimeoutCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        waitTimer = Timer.builder("fds.user.serial.wait")
+                .description("Time spent waiting for earlier work of the same user")
+                .register(meterRegistry);
+        waitTimeoutCounter = meterRegistry.counter("fds.user.serial.wait.timeout");
+        Gauge.builder("fds.user.serial.active", tails, Map::size).register(meterRegistry);
+    }
+
+    public <T> T run(String userId, Supplier<T> task) {
+        if (userId == null) {
+            return task.get();
+        }
+
+        CompletableFuture<Void> mine = new CompletableFuture<>();
+        CompletableFuture<Void> previous = tails.put(userId, mine);
+
+        try {
+            if (previous != null && !previous.isDone()) {
+                long start = System.nanoTime();
+                // 이전 작업의 성공/실패와 관계없이 완료만 기다림
+                try {
+                    previous.handle((r, e) -> null).get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    waitTimeoutCounter.increment();
+                    log.warn("USER_SERIAL_WAIT_TIMEOUT userId={} maxWait={}, running without ordering", userId, maxWait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // handle()로 예외를 삼키므로 발생하지 않음
+                }
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            return task.get();
+        } finally {
+            mine.complete(null);
+            tails.remove(userId, mine);
+        }
+    }
+}
@@ -166,7 +166,7 @@ function showVerificationModal(originalPayload, statusElement) {
         const password = form.querySelector('#verify-password').value;
 
         // 비밀번호 확인
-        const loginPayload = { userId, password, country: originalPayload.country };
+        const loginPayload = { userId, password, country: originalPayload.country, amount: originalPayload.amount };
 
         // 로그인 검증 요청
         verificationStatus.classList.remove('success', 'error', 'info');
@@ -182,9 +182,9 @@ function showVerificationModal(originalPayload, statusElement) {
                 body: JSON.stringify(loginPayload),
             });
 
-            const responseText = await response.text();
+            const result = response.ok ? await response.json() : null;
 
-            if (!response.ok || responseText !== 'VERIFIED') {
+            if (!result || result.status !== 'VERIFIED') {
                 // 인증 실패 - 모달 유지하고 에러 표시
                 verificationStatus.classList.remove('info');
                 verificationStatus.classList.add('error');
@@ -197,12 +197,12 @@ function showVerificationModal(originalPayload, statusElement) {
                 return; // 모달 닫지 않고 종료
             }
 
-            // 인증 성공 - 모달 닫고 verified=true로 재송금
+            // 인증 성공 - 모달 닫고 발급받은 step-up 토큰으로 재송금
             document.body.removeChild(modal);
 
             const verifiedPayload = {
                 ...originalPayload,
-                verified: true
+                stepUpToken: result.stepUpToken
             };
 
             await sendTransferRequest(verifiedPayload, statusElement);
@@ -229,7 +229,7 @@ async function sendTransferRequest(payload, statusElement) {
         params.append('userId', payload.userId);
         params.append('amount', payload.amount);
         if (payload.country) params.append('country', payload.country);
-        if (payload.verified) params.append('verified', 'true');
+        if (payload.stepUpToken) params.append('stepUpToken', payload.stepUpToken);
 
         const response = await fetch(`/api/transfer?${params.toString()}`, {
             method: 'POST'
@@ -409,8 +409,7 @@ transferForm?.addEventListener('submit', (event) => {
     const payload = {
         userId: state.userId,
         country: state.country,
-        amount: Number(transferForm.querySelector('#transfer-amount').value),
-        verified: false
+        amount: Number(transferForm.querySelector('#transfer-amount').value)
     };
 
     sendTransferRequest(payload, transferStatus);
@@ -0,0 +1,205 @@
+package com.fds.filter;
+
+import com.fds.dto.UserRiskState;
+import com.fds.service.GoogleSheetsService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// /auth/login, /api/transfer 요청 스레드의 평균 할당량이 fds.alloc.budget.*을 넘으면 실패
+// Redis/Google Sheets는 mock, n8n webhook은 즉시 200을 돌려주는 WebClient로 대체하고 rate limit은 끔
+// ELK 로그는 logback-test.xml에 따라 build/test-logs에 기록 (인코딩 비용은 측정에 포함)
+// 측정 구간의 JFR 기록(jdk.ObjectAllocationSample)은 build/test-jfr에 남기고, 상위 할당 지점을 로그/실패 메시지에 포함
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "fds.rate-limit.enabled=false",
+        "fds.checkpoint.enabled=false",
+        "fds.history.enabled=false",
+        "fds.shadow.enabled=false",
+        "fds.recipient-graph.max-edges=65536",
+        "fds.recipient-graph.max-recipients=16384"
+})
+class AllocationBudgetFilterTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AllocationBudgetFilterTest.class);
+
+    // JIT 워밍업 구간은 측정에서 제외
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int MEASURED_REQUESTS = 2000;
+    private static final int RECORD_WAIT_SECONDS = 5;
+
+    private static final String ALLOCATION_SAMPLE_EVENT = "jdk.ObjectAllocationSample";
+    private static final int TOP_ALLOCATION_SITES = 5;
+
+    @MockBean
+    private StringRedisTemplate redisTemplate;
+
+    @MockBean
+    private GoogleSheetsService googleSheetsService;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${fds.alloc.budget.login}")
+    private long loginBudget;
+
+    @Value("${fds.alloc.budget.transfer}")
+    private long transferBudget;
+
+    @TestConfiguration
+    static class StubN8nConfig {
+
+        @Bean
+        @Primary
+        WebClient stubN8nWebClient() {
+            return WebClient.builder()
+                    .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK).build()))
+                    .build();
+        }
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void stubExternalServices() {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(values.increment(anyString())).thenReturn(2L);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+
+        when(googleSheetsService.getRiskState(anyString())).thenReturn(new UserRiskState(0, false));
+        when(googleSheetsService.getCurrentTotalScore(anyString())).thenReturn(0);
+    }
+
+    @Test
+    void loginStaysWithinAllocationBudget() throws IOException {
+        assertWithinBudget(AllocationBudgetFilter.LOGIN_PATH, this::login, loginBudget);
+    }
+
+    @Test
+    void transferStaysWithinAllocationBudget() throws IOException {
+        assertWithinBudget(AllocationBudgetFilter.TRANSFER_PATH, this::transfer, transferBudget);
+    }
+
+    private void assertWithinBudget(String path, Runnable request, long budgetBytes) throws IOException {
+        DistributionSummary allocated = meterRegistry.get("fds.request.allocated.bytes").tag("path", path).summary();
+
+        long warmupStart = allocated.count();
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            request.run();
+        }
+        awaitRecorded(allocated, warmupStart + WARMUP_REQUESTS);
+
+        long startCount = allocated.count();
+        double startTotal = allocated.totalAmount();
+
+        // 측정 구간만 JFR로 기록해 예산 초과 시 어디서 할당했는지 함께 보여줌
+        try (Recording recording = new Recording()) {
+            recording.enable(ALLOCATION_SAMPLE_EVENT).withStackTrace().with("throttle", "1000/s");
+            recording.start();
+            for (int i = 0; i < MEASURED_REQUESTS; i++) {
+                request.run();
+            }
+            awaitRecorded(allocated, startCount + MEASURED_REQUESTS);
+            recording.stop();
+
+            long requests = allocated.count() - startCount;
+            long averageBytes = (long) ((allocated.totalAmount() - startTotal) / requests);
+            String topAllocations = topAllocationSites(recording, path);
+            log.info("ALLOCATION_MEASURED path={} requests={} avgBytes={} budgetBytes={} jfrTopSites={}",
+                    path, requests, averageBytes, budgetBytes, topAllocations);
+
+            assertEquals(MEASURED_REQUESTS, requests, "every request must reach the measured handler");
+            assertTrue(averageBytes <= budgetBytes, path + " allocated " + averageBytes
+                    + " bytes/request, budget is " + budgetBytes + ", top JFR sampled sites: " + topAllocations);
+        }
+    }
+
+    // 필터는 응답을 보낸 뒤 finally에서 기록하므로, 클라이언트가 응답을 받은 시점에는 마지막 기록이 아직 안 됐을 수 있음
+    private static void awaitRecorded(DistributionSummary allocated, long expectedCount) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(RECORD_WAIT_SECONDS);
+        while (allocated.count() < expectedCount && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    // 요청 스레드(Tomcat exec)의 jdk.ObjectAllocationSample을 할당 지점(스택 최상단 메서드)별 추정 바이트로 합산해 상위 N개
+    // JFR 샘플 weight는 추정치이므로 예산 판정은 ThreadMXBean 값(fds.request.allocated.bytes)으로 하고 이 결과는 진단용
+    private static String topAllocationSites(Recording recording, String path) throws IOException {
+        Path file = Paths.get("build", "test-jfr", "allocation" + path.replace('/', '-') + ".jfr");
+        Files.createDirectories(file.getParent());
+        recording.dump(file);
+
+        Map<String, Long> bytesBySite = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            RecordedThread thread = event.getThread();
+            if (!ALLOCATION_SAMPLE_EVENT.equals(event.getEventType().getName()) || thread == null
+                    || thread.getJavaName() == null || !thread.getJavaName().contains("-exec-")
+                    || event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+                continue;
+            }
+            RecordedMethod method = event.getStackTrace().getFrames().get(0).getMethod();
+            bytesBySite.merge(method.getType().getName() + "." + method.getName(), event.getLong("weight"), Long::sum);
+        }
+
+        return bytesBySite.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_ALLOCATION_SITES)
+                .map(entry -> entry.getKey() + "=" + entry.getValue() / MEASURED_REQUESTS + "B/req")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private void login() {
+        ResponseEntity<String> response = restTemplate.postForEntity(AllocationBudgetFilter.LOGIN_PATH,
+                Map.of("userId", "user_01", "password", "12345678", "country", "KR"), String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("LOGIN_SUCCESS", response.getBody());
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void transfer() {
+        ResponseEntity<Map> response = restTemplate.postForEntity(
+                AllocationBudgetFilter.TRANSFER_PATH + "?userId=user_01&amount=10000&country=KR", null, Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("SUCCESS", response.getBody().get("status"));
+    }
+}
@@ -0,0 +1,165 @@
+package com.fds.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// 컬럼 파일 쓰기/읽기 왕복, 여러 블록에 걸친 사용자, 이전 버전(v1) 파일 읽기
+class HistoryFileTest {
+
+    private static final int ALL_COLUMNS = (1 << HistoryFile.COLUMNS) - 1;
+    private static final long DAY_START = 1_767_225_600_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsAllColumns() throws IOException {
+        List<HistoryFile.Row> rows = sampleRows();
+        Path file = dir.resolve("fds-2026-01-01.col");
+        HistoryFile.write(file, rows.iterator(), 4096);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            HistoryFile.Index index = HistoryFile.readIndex(channel);
+            assertEquals(rows.size(), index.rowCount());
+            assertEquals(1, index.blocks().size());
+
+            for (String userId : new String[]{"user_01", "user_02", "user_03"}) {
+                assertEquals(rowsOf(rows, userId), scan(channel, index, userId, ALL_COLUMNS));
+            }
+            assertEquals(List.of(), scan(channel, index, "user_00", ALL_COLUMNS));
+            assertEquals(List.of(), scan(channel, index, "user_99", ALL_COLUMNS));
+        }
+    }
+
+    @Test
+    void readsUserSpanningSeveralBlocks() throws IOException {
+        List<HistoryFile.Row> rows = sampleRows();
+        Path file = dir.resolve("fds-2026-01-01.col");
+        // 블록당 4행: [u1 u1 u1 u2] [u2 x4] [u2 x4] [u2 u3 u3] 으로 user_02가 모든 블록에 걸침
+        HistoryFile.write(file, rows.iterator(), 4);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            HistoryFile.Index index = HistoryFile.readIndex(channel);
+            assertEquals(4, index.blocks().size());
+            assertEquals(4, index.blocksFor("user_02").size());
+            assertEquals(1, index.blocksFor("user_03").size());
+
+            List<HistoryFile.Row> expected = rowsOf(rows, "user_02");
+            assertEquals(expected, scan(channel, index, "user_02", ALL_COLUMNS));
+            assertEquals(rowsOf(rows, "user_03"), scan(channel, index, "user_03", ALL_COLUMNS));
+
+            // 요청하지 않은 컬럼은 null, 시각은 항상 채워짐
+            List<HistoryFile.Row> timesOnly = scan(channel, index, "user_02", 0);
+            assertEquals(expected.size(), timesOnly.size());
+            for (int i = 0; i < expected.size(); i++) {
+                HistoryFile.Row row = timesOnly.get(i);
+                assertEquals(expected.get(i).timeMillis(), row.timeMillis());
+                assertNull(row.eventType());
+                assertNull(row.amount());
+                assertNull(row.srcIp());
+            }
+        }
+    }
+
+    @Test
+    void readsVersion1FilesWithoutIpColumns() throws IOException {
+        List<HistoryFile.Row> rows = sampleRows();
+        Path file = dir.resolve("fds-2026-01-01.col");
+        HistoryFile.write(file, rows.iterator(), 4);
+        rewriteAsVersion1(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            HistoryFile.Index index = HistoryFile.readIndex(channel);
+            assertEquals(rows.size(), index.rowCount());
+
+            List<HistoryFile.Row> expected = new ArrayList<>();
+            for (HistoryFile.Row row : rowsOf(rows, "user_02")) {
+                expected.add(new HistoryFile.Row(row.userId(), row.timeMillis(), row.eventType(), row.amount(),
+                        row.country(), row.riskLevel(), row.srcIp(), null, null));
+            }
+            assertEquals(expected, scan(channel, index, "user_02", ALL_COLUMNS));
+        }
+    }
+
+    // user_01 3건, user_02 10건, user_03 2건 (ROW_ORDER 순)
+    private static List<HistoryFile.Row> sampleRows() {
+        List<HistoryFile.Row> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(new HistoryFile.Row("user_01", DAY_START + i * 1_000L, "LOGIN", null,
+                    "KR", "LOW", "203.0.113.1", null, "KR"));
+        }
+        for (int i = 0; i < 10; i++) {
+            boolean transfer = i % 2 == 1;
+            rows.add(new HistoryFile.Row("user_02", DAY_START + i * 60_000L, transfer ? "TRANSFER" : "LOGIN",
+                    transfer ? 10_000L * i : null, i < 5 ? "KR" : "US", i < 8 ? "LOW" : "HIGH",
+                    i < 5 ? "203.0.113.1" : "198.51.100.201", i < 5 ? null : "PROXY,TOR", i < 5 ? "KR" : "US"));
+        }
+        for (int i = 0; i < 2; i++) {
+            rows.add(new HistoryFile.Row("user_03", DAY_START + 5_000L + i, "LOGOUT", null,
+                    null, null, null, "INTERNAL", null));
+        }
+        rows.sort(HistoryFile.ROW_ORDER);
+        return rows;
+    }
+
+    private static List<HistoryFile.Row> rowsOf(List<HistoryFile.Row> rows, String userId) {
+        return rows.stream().filter(row -> row.userId().equals(userId)).toList();
+    }
+
+    private static List<HistoryFile.Row> scan(FileChannel channel, HistoryFile.Index index, String userId, int columns)
+            throws IOException {
+        List<HistoryFile.Row> rows = new ArrayList<>();
+        HistoryFile.scanUser(channel, index, userId, columns, rows::add);
+        return rows;
+    }
+
+    // v1 형식: index에 블록마다 앞 7개 컬럼(ip_flags/ip_country 제외)만 기록
+    // chunk 영역은 그대로 두고 index와 trailer만 다시 씀 (v2 전용 chunk는 참조되지 않는 바이트로 남음)
+    private static void rewriteAsVersion1(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer trailer = ByteBuffer.wrap(bytes, bytes.length - 12, 12);
+        long indexOffset = trailer.getLong();
+        int magic = trailer.getInt();
+
+        HistoryFile.Index index;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            index = HistoryFile.readIndex(channel);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(bytes, 0, (int) indexOffset);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(1);
+        data.writeInt(index.rowCount());
+        data.writeInt(index.blocks().size());
+        for (HistoryFile.Block block : index.blocks()) {
+            data.writeUTF(block.firstUser());
+            data.writeUTF(block.lastUser());
+            data.writeInt(block.rows());
+            for (int column = 0; column < HistoryFile.COL_IP_FLAGS; column++) {
+                data.writeLong(block.offsets()[column]);
+                data.writeInt(block.lengths()[column]);
+                data.writeInt(block.rawLengths()[column]);
+            }
+        }
+        data.writeLong(indexOffset);
+        data.writeInt(magic);
+        data.flush();
+
+        Files.write(file, out.toByteArray());
+    }
+}
@@ -0,0 +1,98 @@
+package com.fds.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// 국가는 가장 긴 prefix, 플래그는 경로상의 모든 prefix를 OR
+class IpTrieTest {
+
+    @Test
+    void usesLongestPrefixCountry() {
+        IpTrie trie = new IpTrie(32);
+        insert(trie, "203.0.113.0/24", 0, "KR");
+        insert(trie, "203.0.113.64/26", 0, "SG");
+        insert(trie, "203.0.113.77/32", 0, "JP");
+
+        assertEquals("KR", country(trie, "203.0.113.10"));
+        assertEquals("KR", country(trie, "203.0.113.200"));
+        assertEquals("SG", country(trie, "203.0.113.78"));
+        assertEquals("JP", country(trie, "203.0.113.77"));
+        assertNull(country(trie, "198.51.100.1"));
+    }
+
+    @Test
+    void combinesFlagsAlongThePath() {
+        IpTrie trie = new IpTrie(32);
+        insert(trie, "198.51.100.0/24", IpTrie.FLAG_PROXY, null);
+        insert(trie, "198.51.100.192/26", IpTrie.FLAG_TOR, null);
+        insert(trie, "198.51.100.0/24", 0, "US");
+
+        int both = trie.lookup(IpIntelligence.parseAddress("198.51.100.200"));
+        assertEquals(IpTrie.FLAG_PROXY | IpTrie.FLAG_TOR, both & 0xFF);
+        assertEquals("US", trie.countryCode(both));
+
+        int proxyOnly = trie.lookup(IpIntelligence.parseAddress("198.51.100.23"));
+        assertEquals(IpTrie.FLAG_PROXY, proxyOnly & 0xFF);
+
+        assertEquals(0, trie.lookup(IpIntelligence.parseAddress("192.0.2.1")));
+    }
+
+    @Test
+    void intLookupMatchesByteLookup() {
+        IpTrie trie = new IpTrie(32);
+        insert(trie, "10.0.0.0/8", IpTrie.FLAG_INTERNAL, null);
+        insert(trie, "203.0.113.0/24", 0, "KR");
+        insert(trie, "0.0.0.0/0", 0, "ZZ");
+
+        for (String ip : new String[]{"10.1.2.3", "203.0.113.255", "255.255.255.255", "0.0.0.0", "8.8.8.8"}) {
+            byte[] address = IpIntelligence.parseAddress(ip);
+            int asInt = ((address[0] & 0xFF) << 24) | ((address[1] & 0xFF) << 16)
+                    | ((address[2] & 0xFF) << 8) | (address[3] & 0xFF);
+            assertEquals(trie.lookup(address), trie.lookup(asInt), ip);
+        }
+        assertEquals("ZZ", country(trie, "8.8.8.8"));
+    }
+
+    @Test
+    void looksUpIpv6Prefixes() {
+        IpTrie trie = new IpTrie(128);
+        insert(trie, "2001:db8::/32", 0, "JP");
+        insert(trie, "2001:db8:1::/48", IpTrie.FLAG_PROXY, "US");
+        insert(trie, "2001:db8:1::5/128", IpTrie.FLAG_TOR, null);
+        insert(trie, "fc00::/7", IpTrie.FLAG_INTERNAL, null);
+
+        assertEquals("JP", country(trie, "2001:db8:2::1"));
+        assertEquals("US", country(trie, "2001:db8:1:ffff::1"));
+        assertNull(country(trie, "2001:db9::1"));
+
+        int host = trie.lookup(IpIntelligence.parseAddress("2001:db8:1::5"));
+        assertEquals(IpTrie.FLAG_PROXY | IpTrie.FLAG_TOR, host & 0xFF);
+        assertEquals("US", trie.countryCode(host));
+
+        assertEquals(IpTrie.FLAG_INTERNAL, trie.lookup(IpIntelligence.parseAddress("fd12:3456::1")) & 0xFF);
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        IpTrie trie = new IpTrie(32);
+        for (int i = 0; i < 256; i++) {
+            insert(trie, "198.51." + i + ".0/24", 0, i % 2 == 0 ? "KR" : "US");
+        }
+
+        assertEquals("KR", country(trie, "198.51.0.1"));
+        assertEquals("US", country(trie, "198.51.255.1"));
+        assertNull(country(trie, "198.52.0.1"));
+    }
+
+    private static void insert(IpTrie trie, String cidr, int flag, String country) {
+        int slash = cidr.indexOf('/');
+        trie.insert(IpIntelligence.parseAddress(cidr.substring(0, slash)),
+                Integer.parseInt(cidr.substring(slash + 1)), flag, country);
+    }
+
+    private static String country(IpTrie trie, String ip) {
+        return trie.countryCode(trie.lookup(IpIntelligence.parseAddress(ip)));
+    }
+}
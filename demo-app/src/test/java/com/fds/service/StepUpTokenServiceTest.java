@@ -0,0 +1,100 @@
+package com.fds.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 토큰 서명/만료/재사용/바인딩 검증 (Redis는 끈 상태라 인스턴스 nonce 맵만 사용)
+class StepUpTokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private StepUpTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        service = newService(SECRET, Duration.ofMinutes(2));
+    }
+
+    @Test
+    void acceptsIssuedTokenOnce() {
+        String token = service.issue("user_01", 50_000);
+
+        assertTrue(service.verify(token, "user_01", 50_000));
+        assertFalse(service.verify(token, "user_01", 50_000), "replayed token must be rejected");
+    }
+
+    @Test
+    void rejectsTokenBoundToAnotherUserOrAmount() {
+        String token = service.issue("user_01", 50_000);
+
+        assertFalse(service.verify(token, "user_02", 50_000));
+        assertFalse(service.verify(token, "user_01", 50_001));
+        // 바인딩이 다른 요청은 nonce를 소비하지 않음
+        assertTrue(service.verify(token, "user_01", 50_000));
+    }
+
+    @Test
+    void rejectsTamperedPayloadOrSignature() {
+        String token = service.issue("user_01", 50_000);
+        int dot = token.indexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+        String signature = token.substring(dot + 1);
+
+        String raisedAmount = payload.replace(":50000:", ":5000000:");
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raisedAmount.getBytes(StandardCharsets.UTF_8)) + "." + signature;
+        assertFalse(service.verify(forged, "user_01", 5_000_000));
+
+        // 마지막 문자는 padding bit가 섞여 있으므로 첫 문자를 바꿈
+        char first = signature.charAt(0);
+        String badSignature = token.substring(0, dot + 1) + (first == 'A' ? 'B' : 'A') + signature.substring(1);
+        assertFalse(service.verify(badSignature, "user_01", 50_000));
+
+        assertFalse(service.verify("not-a-token", "user_01", 50_000));
+        assertFalse(service.verify("%%%.%%%", "user_01", 50_000));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        StepUpTokenService other = newService("fedcba9876543210fedcba9876543210", Duration.ofMinutes(2));
+
+        assertFalse(service.verify(other.issue("user_01", 50_000), "user_01", 50_000));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        StepUpTokenService expired = newService(SECRET, Duration.ofSeconds(-1));
+
+        assertFalse(expired.verify(expired.issue("user_01", 50_000), "user_01", 50_000));
+    }
+
+    @Test
+    void parsesUserIdContainingColons() {
+        String token = service.issue("corp:user_01", 50_000);
+
+        assertFalse(service.verify(token, "corp", 50_000));
+        assertTrue(service.verify(token, "corp:user_01", 50_000));
+
+        // userId에 금액처럼 보이는 부분이 있어도 뒤에서부터 분리하므로 다른 (userId, 금액)으로 해석되지 않음
+        String ambiguous = service.issue("user_01:70000", 50_000);
+        assertFalse(service.verify(ambiguous, "user_01", 70_000));
+        assertTrue(service.verify(ambiguous, "user_01:70000", 50_000));
+    }
+
+    private static StepUpTokenService newService(String secret, Duration ttl) {
+        StepUpTokenService service = new StepUpTokenService(null);
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "ttl", ttl);
+        ReflectionTestUtils.setField(service, "redisEnabled", false);
+        service.init();
+        return service;
+    }
+}